@@ -0,0 +1,152 @@
+package ru.practicum.shareit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.ItemInfoCache;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The read paths of the services against an in-memory H2 filled with one owner's items and their bookings.
+ * Measures what a request costs below the controller: repositories, mapping and the item info cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+    private static final int ITEMS = 500;
+    private static final int BOOKERS = 50;
+    private static final int BOOKINGS_PER_ITEM = 4;
+    private static final int COMMENTS_PER_ITEM = 2;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private BookingService bookingService;
+    private ItemInfoCache itemInfoCache;
+
+    private Long ownerId;
+    private Long bookerId;
+    private Long itemId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN",
+                        "logging.level.org.springframework.transaction.interceptor=WARN",
+                        "logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")
+                .run();
+        itemService = context.getBean(ItemService.class);
+        bookingService = context.getBean(BookingService.class);
+        itemInfoCache = context.getBean(ItemInfoCache.class);
+        seed();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seed() {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        ItemRepository itemRepository = context.getBean(ItemRepository.class);
+        BookingRepository bookingRepository = context.getBean(BookingRepository.class);
+        CommentRepository commentRepository = context.getBean(CommentRepository.class);
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+
+        User owner = userRepository.save(new User(null, "owner", "owner@email.com"));
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            bookers.add(userRepository.save(new User(null, "booker " + i, "booker" + i + "@email.com")));
+        }
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(new Item(null, "item " + i, "description of item " + i, true, owner, null));
+        }
+        items = itemRepository.saveAll(items);
+
+        List<Booking> bookings = new ArrayList<>();
+        List<Comment> comments = new ArrayList<>();
+        for (Item item : items) {
+            for (int i = 0; i < BOOKINGS_PER_ITEM; i++) {
+                User booker = bookers.get(random.nextInt(BOOKERS));
+                LocalDateTime start = now.plusDays(random.nextInt(60) - 30);
+                bookings.add(new Booking(null, start, start.plusDays(1), item, booker, Status.APPROVED));
+            }
+            for (int i = 0; i < COMMENTS_PER_ITEM; i++) {
+                comments.add(new Comment(null, "comment " + i, item, bookers.get(random.nextInt(BOOKERS)), now));
+            }
+        }
+        bookingRepository.saveAll(bookings);
+        commentRepository.saveAll(comments);
+
+        ownerId = owner.getId();
+        bookerId = bookers.get(0).getId();
+        itemId = items.get(ITEMS / 2).getId();
+    }
+
+    @Benchmark
+    public Collection<ItemDto> ownerItemsPage() {
+        return itemService.getItemsByUserId(ownerId, 0, 20);
+    }
+
+    @Benchmark
+    public ItemDto itemInfoUncached() {
+        itemInfoCache.invalidateAll();
+        return itemService.getItemInfo(itemId, ownerId);
+    }
+
+    @Benchmark
+    public ItemDto itemInfoCached() {
+        return itemService.getItemInfo(itemId, ownerId);
+    }
+
+    @Benchmark
+    public List<BookingOutputDto> ownerBookingsPage() {
+        return bookingService.getAllBookingsForOwner(ownerId, BookingState.ALL, 0, 20);
+    }
+
+    @Benchmark
+    public List<BookingOutputDto> bookerBookingsPage() {
+        return bookingService.getAllBookings(bookerId, BookingState.ALL, 0, 20);
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.shareit.booking;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingMappingBenchmark {
+
+    @Param({"20", "1000"})
+    private int size;
+
+    private List<Booking> bookings;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        User owner = new User(1L, "owner", "owner@email.com");
+        LocalDateTime base = LocalDateTime.of(2032, 9, 15, 9, 0);
+        bookings = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            User booker = new User(i + 2L, "booker " + i, "booker" + i + "@email.com");
+            Item item = new Item((long) i, "item " + i, "description " + i, true, owner, null);
+            LocalDateTime start = base.plusHours(random.nextInt(10000));
+            bookings.add(new Booking((long) i, start, start.plusHours(2), item, booker, Status.APPROVED));
+        }
+    }
+
+    @Benchmark
+    public List<BookingOutputDto> toOutputDtos() {
+        List<BookingOutputDto> result = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            result.add(BookingMapper.toBookingOutputDto(booking));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Booking> sortByStart() {
+        List<Booking> sorted = new ArrayList<>(bookings);
+        sorted.sort(new BookingDateComparator());
+        return sorted;
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.item;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemMappingBenchmark {
+
+    @Param({"20", "1000"})
+    private int size;
+
+    private List<Item> items;
+    private List<ItemDto> itemDtos;
+    private List<CommentDto> comments;
+    private User owner;
+
+    @Setup
+    public void setUp() {
+        owner = new User(1L, "owner", "owner@email.com");
+        ItemRequest request = new ItemRequest(1L, "need a drill", new User(2L, "requestor", "r@email.com"),
+                ZonedDateTime.now());
+        comments = List.of(
+                new CommentDto(1L, "fine", "booker", LocalDateTime.now()),
+                new CommentDto(2L, "works", "booker", LocalDateTime.now()));
+        items = new ArrayList<>(size);
+        itemDtos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new Item((long) i, "item " + i, "description " + i, true, owner, i % 2 == 0 ? request : null));
+            itemDtos.add(new ItemDto(null, "item " + i, "description " + i, true, null, null, null, null));
+        }
+    }
+
+    @Benchmark
+    public List<ItemDto> toItemDtos() {
+        List<ItemDto> result = new ArrayList<>(items.size());
+        for (Item item : items) {
+            result.add(ItemMapper.toItemDto(item, comments,
+                    new ItemDto.ExtremumBookingDto(1L, 3L), new ItemDto.ExtremumBookingDto(2L, 3L)));
+        }
+        return result;
+    }
+
+    @Benchmark
+    public List<Item> toItems() {
+        List<Item> result = new ArrayList<>(itemDtos.size());
+        for (ItemDto itemDto : itemDtos) {
+            result.add(ItemMapper.toItem(itemDto, owner, null));
+        }
+        return result;
+    }
+}
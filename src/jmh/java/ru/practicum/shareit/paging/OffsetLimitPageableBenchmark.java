@@ -0,0 +1,47 @@
+package ru.practicum.shareit.paging;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OffsetLimitPageableBenchmark {
+
+    private Integer from = 40;
+    private Integer size = 20;
+
+    @Benchmark
+    public Pageable create() {
+        return OffsetLimitPageable.create(from, size);
+    }
+
+    @Benchmark
+    public Pageable createSorted() {
+        return OffsetLimitPageable.create(from, size, Sort.by(Sort.Direction.DESC, "start"));
+    }
+
+    @Benchmark
+    public Pageable createUnpaged() {
+        return OffsetLimitPageable.create(null, null);
+    }
+
+    @Benchmark
+    public Pageable next() {
+        return OffsetLimitPageable.create(from, size).next();
+    }
+}
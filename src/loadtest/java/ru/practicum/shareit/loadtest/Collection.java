@@ -0,0 +1,82 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads the requests of a Postman collection, such as sprint.json, as the mix to replay.
+ * Requests whose tests expect an error are checks of validation, not traffic, and are left out.
+ */
+final class Collection {
+
+    private static final Pattern EXPECTED_STATUSES = Pattern.compile("oneOf\\(\\[([^\\]]*)\\]\\)|status\\((\\d{3})\\)");
+
+    private Collection() {
+    }
+
+    static List<RequestTemplate> read(Path file, Set<String> methods) throws IOException {
+        List<RequestTemplate> templates = new ArrayList<>();
+        collect(new ObjectMapper().readTree(file.toFile()).path("item"), methods, templates);
+        if (templates.isEmpty()) throw new IllegalArgumentException("No requests to replay in " + file);
+        return templates;
+    }
+
+    private static void collect(JsonNode items, Set<String> methods, List<RequestTemplate> templates) {
+        for (JsonNode item : items) {
+            if (item.has("item")) {
+                collect(item.get("item"), methods, templates);
+                continue;
+            }
+            JsonNode request = item.path("request");
+            String method = request.path("method").asText();
+            if (!methods.contains(method) || !expectsSuccess(item)) continue;
+
+            List<String> path = new ArrayList<>();
+            request.path("url").path("path").forEach(segment -> {
+                if (!segment.asText().isEmpty()) path.add(segment.asText());
+            });
+            Map<String, String> query = new LinkedHashMap<>();
+            request.path("url").path("query").forEach(parameter -> {
+                if (!parameter.path("disabled").asBoolean()) {
+                    query.put(parameter.path("key").asText(), parameter.path("value").asText(""));
+                }
+            });
+            Map<String, String> headers = new LinkedHashMap<>();
+            request.path("header").forEach(header -> {
+                if (!header.path("disabled").asBoolean()) {
+                    headers.put(header.path("key").asText(), header.path("value").asText());
+                }
+            });
+            String body = request.path("body").path("raw").asText("");
+            templates.add(new RequestTemplate(method, path, query, headers, body.isBlank() ? null : body));
+        }
+    }
+
+    private static boolean expectsSuccess(JsonNode item) {
+        boolean found = false;
+        for (JsonNode event : item.path("event")) {
+            if (!"test".equals(event.path("listen").asText())) continue;
+            for (JsonNode line : event.path("script").path("exec")) {
+                Matcher matcher = EXPECTED_STATUSES.matcher(line.asText());
+                while (matcher.find()) {
+                    found = true;
+                    String statuses = matcher.group(1) != null ? matcher.group(1) : matcher.group(2);
+                    for (String status : statuses.split(",")) {
+                        if (status.trim().startsWith("2")) return true;
+                    }
+                }
+            }
+        }
+        return !found;
+    }
+}
@@ -0,0 +1,70 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.RequiredArgsConstructor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * What the target instance holds: ids 1..n of each table, as the generate profile leaves them,
+ * the words its item names are made of and the sampled owners and bookers.
+ */
+@RequiredArgsConstructor
+class Dataset {
+
+    private final int users;
+    private final int items;
+    private final int bookings;
+    private final int requests;
+    private final List<String> texts;
+    private final Relations relations;
+
+    String id(String variable, SplittableRandom random) {
+        switch (variable) {
+            case "userId":
+                return String.valueOf(1 + random.nextInt(users));
+            case "itemId":
+                return String.valueOf(1 + random.nextInt(items));
+            case "bookingId":
+                return String.valueOf(1 + random.nextInt(bookings));
+            case "requestId":
+                return String.valueOf(1 + random.nextInt(requests));
+            default:
+                throw new IllegalArgumentException("Unknown path variable " + variable);
+        }
+    }
+
+    /**
+     * The sharer and the path id of a request only the owner or the booker may send, drawn together:
+     * the owner of the item changed, the owner of the booking approved, the booker or the owner of the booking read.
+     * Ids of other requests, or of requests nobody sampled is related to, are drawn one by one.
+     */
+    Map<String, String> related(String endpoint, SplittableRandom random) {
+        switch (endpoint) {
+            case "PATCH /items/:itemId":
+                return link(relations.getOwnedItems(), "itemId", random);
+            case "PATCH /bookings/:bookingId":
+                return link(relations.getWaitingBookings(), "bookingId", random);
+            case "GET /bookings/:bookingId":
+                return link(random.nextBoolean() ? relations.getMadeBookings() : relations.getOwnedBookings(),
+                        "bookingId", random);
+            default:
+                return new HashMap<>();
+        }
+    }
+
+    String text(SplittableRandom random) {
+        return texts.get(random.nextInt(texts.size()));
+    }
+
+    private static Map<String, String> link(List<Relations.Link> links, String variable, SplittableRandom random) {
+        Map<String, String> ids = new HashMap<>();
+        if (links.isEmpty()) return ids;
+        Relations.Link link = links.get(random.nextInt(links.size()));
+        ids.put("userId", link.getUserId());
+        ids.put(variable, link.getId());
+        return ids;
+    }
+}
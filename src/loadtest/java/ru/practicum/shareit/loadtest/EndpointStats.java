@@ -0,0 +1,52 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.Getter;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies in microseconds and outcomes of one endpoint.
+ */
+class EndpointStats {
+
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    @Getter
+    private final Histogram latencies = new ConcurrentHistogram(MAX_MICROS, 3);
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Status 0 stands for a request that got no response. 4xx answers are counted apart, they are rejected requests
+     * of the mix rather than failures of the server.
+     */
+    void record(long nanos, int status) {
+        latencies.recordValue(Math.min(MAX_MICROS, Math.max(1, nanos / 1000)));
+        if (status >= 400 && status < 500) {
+            clientErrors.increment();
+        } else if (status < 200 || status >= 300) {
+            errors.increment();
+        }
+    }
+
+    void add(EndpointStats other) {
+        latencies.add(other.latencies);
+        clientErrors.add(other.getClientErrors());
+        errors.add(other.getErrors());
+    }
+
+    long getCount() {
+        return latencies.getTotalCount();
+    }
+
+    long getClientErrors() {
+        return clientErrors.sum();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+}
@@ -0,0 +1,224 @@
+package ru.practicum.shareit.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays the requests of a Postman collection against a running ShareIt at a fixed rate and reports
+ * latency percentiles and throughput per endpoint.
+ *
+ * <p>Request k is due at start + k / rps whether or not the earlier ones have returned, and its latency
+ * is counted from that moment, so a stalled server shows up in the percentiles instead of quietly lowering
+ * the rate (coordinated omission). Each of the connections sends its next due request once the previous
+ * one returns; when all of them are busy the requests queue up and their latency grows.
+ *
+ * <p>Options, all optional:
+ * <pre>
+ * --base-url http://localhost:8080   --collection sprint.json   --rps 200   --duration 60s   --warmup 10s
+ * --connections 64   --methods GET,POST,PATCH   --seed 42   --timeout 30s   --report report.csv
+ * --users 10000   --items 50000   --bookings 1000000   --requests 5000   --texts drill,saw,tent   --sample 500
+ * </pre>
+ * Ids are drawn from 1..n of the sizes given, the defaults are those of the generate profile. Before the run
+ * the items and bookings of {@code sample} random users are listed, so that changing an item, approving
+ * a booking or reading one is sent by its owner or booker. The report counts 4xx answers apart from errors,
+ * which are 5xx answers and requests that got no response, those not answered within {@code timeout} included.
+ */
+public final class LoadTest {
+
+    private static final Map<String, String> DEFAULTS = Map.ofEntries(
+            Map.entry("base-url", "http://localhost:8080"),
+            Map.entry("collection", "sprint.json"),
+            Map.entry("rps", "200"),
+            Map.entry("duration", "60s"),
+            Map.entry("warmup", "10s"),
+            Map.entry("connections", "64"),
+            Map.entry("methods", "GET,POST,PATCH"),
+            Map.entry("seed", "42"),
+            Map.entry("timeout", "30s"),
+            Map.entry("users", "10000"),
+            Map.entry("items", "50000"),
+            Map.entry("bookings", "1000000"),
+            Map.entry("requests", "5000"),
+            Map.entry("sample", "500"),
+            Map.entry("texts", "drill,saw,ladder,tent,camera,portable,garden,electric,folding,kayak")
+    );
+
+    private final Map<String, String> options;
+    private final List<RequestTemplate> templates;
+    private final Dataset dataset;
+    private final HttpClient client;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    private LoadTest(Map<String, String> options) throws IOException, InterruptedException {
+        this.options = options;
+        this.templates = Collection.read(Path.of(options.get("collection")),
+                new LinkedHashSet<>(Arrays.asList(options.get("methods").split(","))));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        Relations relations = Relations.discover(client, options.get("base-url"), intOption("users"),
+                intOption("sample"), Long.parseLong(options.get("seed")), duration("timeout"));
+        System.out.printf("Sampled %d owned items, %d owned bookings (%d waiting), %d made bookings%n",
+                relations.getOwnedItems().size(), relations.getOwnedBookings().size(),
+                relations.getWaitingBookings().size(), relations.getMadeBookings().size());
+        this.dataset = new Dataset(intOption("users"), intOption("items"), intOption("bookings"),
+                intOption("requests"), Arrays.asList(options.get("texts").split(",")), relations);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--") || i + 1 == args.length) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if (!DEFAULTS.containsKey(name) && !"report".equals(name)) {
+                throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+            options.put(name, args[++i]);
+        }
+        new LoadTest(options).run();
+    }
+
+    private void run() throws Exception {
+        int rps = intOption("rps");
+        int connections = intOption("connections");
+        long period = TimeUnit.SECONDS.toNanos(1) / rps;
+        long warmup = duration("warmup").toNanos();
+        long measured = duration("duration").toNanos();
+        System.out.printf("%d requests of %s, %d rps for %s after %s of warmup, %d connections%n",
+                templates.size(), options.get("collection"), rps, options.get("duration"), options.get("warmup"),
+                connections);
+
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFrom = start + warmup;
+        long end = measureFrom + measured;
+        AtomicLong sequence = new AtomicLong();
+        ExecutorService workers = Executors.newFixedThreadPool(connections);
+        for (int i = 0; i < connections; i++) {
+            workers.execute(() -> {
+                while (true) {
+                    long k = sequence.getAndIncrement();
+                    long due = start + k * period;
+                    if (due >= end) return;
+                    while (System.nanoTime() < due) {
+                        LockSupport.parkNanos(due - System.nanoTime());
+                    }
+                    if (!send(k, due, due >= measureFrom)) return;
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        long tookMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - measureFrom);
+
+        report(System.out, tookMillis / 1000.0);
+        if (options.containsKey("report")) {
+            try (PrintStream csv = new PrintStream(options.get("report"), StandardCharsets.UTF_8)) {
+                csv(csv, tookMillis / 1000.0);
+            }
+            System.out.println("Report is saved to " + options.get("report"));
+        }
+    }
+
+    /**
+     * Returns false when interrupted.
+     */
+    private boolean send(long k, long due, boolean measure) {
+        SplittableRandom random = new SplittableRandom(Long.parseLong(options.get("seed")) * 1_000_003 + k);
+        RequestTemplate template = templates.get(random.nextInt(templates.size()));
+        HttpRequest request = template.build(options.get("base-url"), dataset, random, "load-" + runId + "-" + k,
+                duration("timeout"));
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (HttpTimeoutException e) {
+            // counted as an error like any request without a response, the connection is free for the next one
+            status = 0;
+        } catch (IOException e) {
+            status = 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        if (measure) {
+            stats.computeIfAbsent(template.getEndpoint(), endpoint -> new EndpointStats())
+                    .record(System.nanoTime() - due, status);
+        }
+        return true;
+    }
+
+    private void report(PrintStream out, double seconds) {
+        out.printf("%n%-40s %9s %8s %8s %9s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "4xx", "errors", "rps", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Map.Entry<String, EndpointStats> row : rows().entrySet()) {
+            EndpointStats endpoint = row.getValue();
+            Histogram latencies = endpoint.getLatencies();
+            out.printf("%-40s %9d %8d %8d %9.1f %10.2f %10.2f %10.2f %10.2f%n", row.getKey(), endpoint.getCount(),
+                    endpoint.getClientErrors(), endpoint.getErrors(), endpoint.getCount() / seconds,
+                    millis(latencies, 50), millis(latencies, 99), millis(latencies, 99.9),
+                    latencies.getMaxValue() / 1000.0);
+        }
+    }
+
+    private void csv(PrintStream out, double seconds) {
+        out.println("endpoint,requests,client_errors,errors,rps,p50_ms,p99_ms,p999_ms,max_ms");
+        for (Map.Entry<String, EndpointStats> row : rows().entrySet()) {
+            EndpointStats endpoint = row.getValue();
+            Histogram latencies = endpoint.getLatencies();
+            out.printf(Locale.ROOT, "\"%s\",%d,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f%n", row.getKey(),
+                    endpoint.getCount(), endpoint.getClientErrors(), endpoint.getErrors(),
+                    endpoint.getCount() / seconds, millis(latencies, 50), millis(latencies, 99),
+                    millis(latencies, 99.9), latencies.getMaxValue() / 1000.0);
+        }
+    }
+
+    /**
+     * Endpoints by name and a last "total" row over all of them.
+     */
+    private Map<String, EndpointStats> rows() {
+        EndpointStats total = new EndpointStats();
+        stats.values().forEach(total::add);
+        Map<String, EndpointStats> rows = new LinkedHashMap<>(new TreeMap<>(stats));
+        rows.put("total", total);
+        return rows;
+    }
+
+    private static double millis(Histogram latencies, double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private int intOption(String name) {
+        return Integer.parseInt(options.get(name));
+    }
+
+    private Duration duration(String name) {
+        return Duration.parse("PT" + options.get(name).toUpperCase());
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.shareit.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Who owns and who booked what on the target instance, sampled through the API before the run:
+ * the items of random users, the bookings they made and the bookings of their items.
+ * Requests that only the owner or the booker may send draw their sharer and ids from here.
+ */
+@Getter
+class Relations {
+
+    private static final String PAGE = "from=0&size=20";
+
+    private final List<Link> ownedItems = new ArrayList<>();
+    private final List<Link> ownedBookings = new ArrayList<>();
+    private final List<Link> waitingBookings = new ArrayList<>();
+    private final List<Link> madeBookings = new ArrayList<>();
+
+    static Relations discover(HttpClient client, String baseUrl, int users, int sample, long seed, Duration timeout)
+            throws IOException, InterruptedException {
+        ObjectMapper mapper = new ObjectMapper();
+        SplittableRandom random = new SplittableRandom(seed);
+        Relations relations = new Relations();
+        for (int i = 0; i < sample; i++) {
+            String userId = String.valueOf(1 + random.nextInt(users));
+            for (JsonNode item : get(client, mapper, baseUrl + "/items?" + PAGE, userId, timeout)) {
+                relations.ownedItems.add(new Link(userId, item.path("id").asText()));
+            }
+            for (JsonNode booking : get(client, mapper, baseUrl + "/bookings?state=ALL&" + PAGE, userId, timeout)) {
+                relations.madeBookings.add(new Link(userId, booking.path("id").asText()));
+            }
+            for (JsonNode booking : get(client, mapper, baseUrl + "/bookings/owner?state=ALL&" + PAGE, userId,
+                    timeout)) {
+                Link link = new Link(userId, booking.path("id").asText());
+                relations.ownedBookings.add(link);
+                if ("WAITING".equals(booking.path("status").asText())) relations.waitingBookings.add(link);
+            }
+        }
+        return relations;
+    }
+
+    /**
+     * The listing, or nothing when the user is unknown to the instance.
+     */
+    private static JsonNode get(HttpClient client, ObjectMapper mapper, String uri, String userId, Duration timeout)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(uri))
+                .timeout(timeout)
+                .header(RequestTemplate.USER_HEADER, userId)
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) return mapper.createArrayNode();
+        return mapper.readTree(response.body());
+    }
+
+    /**
+     * A user and the id of an item or booking the user owns or booked.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    static class Link {
+        private final String userId;
+        private final String id;
+    }
+}
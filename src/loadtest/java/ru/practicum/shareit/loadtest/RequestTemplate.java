@@ -0,0 +1,90 @@
+package ru.practicum.shareit.loadtest;
+
+import lombok.Getter;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A request of the Postman collection. Every call gets a random sharer, random ids in the path and the body,
+ * a random search text, a future booking window and an email nobody has, so the same request can be sent
+ * any number of times against a generated dataset. Requests only an owner or a booker may send get a sharer
+ * related to the ids in the path, see {@link Dataset#related}.
+ */
+class RequestTemplate {
+
+    static final String USER_HEADER = "X-Sharer-User-Id";
+    private static final Pattern ITEM_ID = Pattern.compile("(\"itemId\"\\s*:\\s*)\\d+");
+    private static final Pattern EMAIL = Pattern.compile("(\"email\"\\s*:\\s*)\"[^\"]*\"");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    /**
+     * Method and path with variables, like "GET /items/:itemId", results are reported per endpoint.
+     */
+    @Getter
+    private final String endpoint;
+    private final String method;
+    private final List<String> path;
+    private final Map<String, String> query;
+    private final Map<String, String> headers;
+    private final String body;
+
+    RequestTemplate(String method, List<String> path, Map<String, String> query, Map<String, String> headers,
+                    String body) {
+        this.endpoint = method + " /" + String.join("/", path);
+        this.method = method;
+        this.path = path;
+        this.query = query;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    HttpRequest build(String baseUrl, Dataset dataset, SplittableRandom random, String uniqueId, Duration timeout) {
+        Map<String, String> ids = dataset.related(endpoint, random);
+        StringBuilder uri = new StringBuilder(baseUrl);
+        for (String segment : path) {
+            uri.append('/').append(segment.startsWith(":")
+                    ? ids.computeIfAbsent(segment.substring(1), variable -> dataset.id(variable, random))
+                    : segment);
+        }
+        char separator = '?';
+        for (Map.Entry<String, String> parameter : query.entrySet()) {
+            String value = "text".equals(parameter.getKey()) ? dataset.text(random) : parameter.getValue();
+            uri.append(separator).append(parameter.getKey()).append('=')
+                    .append(URLEncoder.encode(value, StandardCharsets.UTF_8));
+            separator = '&';
+        }
+
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(uri.toString()))
+                .timeout(timeout);
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            String value = USER_HEADER.equals(header.getKey())
+                    ? ids.computeIfAbsent("userId", variable -> dataset.id(variable, random))
+                    : header.getValue();
+            request.header(header.getKey(), value);
+        }
+        if (body == null) return request.method(method, HttpRequest.BodyPublishers.noBody()).build();
+        if (!headers.containsKey("Content-Type")) request.header("Content-Type", "application/json");
+        return request.method(method, HttpRequest.BodyPublishers.ofString(body(dataset, random, uniqueId))).build();
+    }
+
+    private String body(Dataset dataset, SplittableRandom random, String uniqueId) {
+        LocalDateTime start = LocalDateTime.now().plusDays(1 + random.nextInt(60)).plusMinutes(random.nextInt(1440));
+        LocalDateTime end = start.plusHours(1 + random.nextInt(72));
+        String filled = body
+                .replace("{{start}}", DATE_TIME.format(start))
+                .replace("{{end}}", DATE_TIME.format(end));
+        filled = ITEM_ID.matcher(filled).replaceAll("$1" + dataset.id("itemId", random));
+        return EMAIL.matcher(filled).replaceAll("$1" + Matcher.quoteReplacement("\"" + uniqueId + "@load.test\""));
+    }
+}
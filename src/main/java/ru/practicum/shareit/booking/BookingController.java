@@ -2,11 +2,13 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.paging.KeysetCursor;
 
 import javax.validation.Valid;
 import java.util.List;
@@ -17,6 +19,8 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 public class BookingController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService bookingService;
 
     @PostMapping
@@ -38,6 +42,16 @@ public class BookingController {
         return BookingMapper.toBookingOutputDto(bookingService.setBookingApproveStatus(bookingId, userId, approved));
     }
 
+    @PatchMapping("/bulk")
+    public List<BookingApprovalResultDto> approveAll(
+            @RequestBody List<Long> bookingIds,
+            @RequestParam boolean approved,
+            @RequestHeader("X-Sharer-User-Id") Long userId
+    ) {
+        log.info("Request to approve bookings ids = {}, approved: {}", bookingIds, approved);
+        return bookingService.setBookingsApproveStatus(bookingIds, userId, approved);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingOutputDto getBookingInfo(@PathVariable Long bookingId,
                                            @RequestHeader("X-Sharer-User-Id") Long userId) {
@@ -55,8 +69,7 @@ public class BookingController {
         log.info("Request all bookings, userId = {}, state = {}", userId, state);
         BookingState bookingState = BookingState.optionalValueOf(state).orElseThrow(
                 () -> new BadRequestException("Unknown state: UNSUPPORTED_STATUS"));
-        List<Booking> bookings = bookingService.getAllBookings(userId, bookingState, from, size);
-        return BookingMapper.toBookingOutputDtoList(bookings);
+        return bookingService.getAllBookings(userId, bookingState, from, size);
     }
 
     @GetMapping("owner")
@@ -69,10 +82,52 @@ public class BookingController {
         log.info("Request all bookings for owner, userId = {}, state = {}", userId, state);
         try {
             BookingState bookingState = state != null ? BookingState.valueOf(state) : BookingState.ALL;
-            List<Booking> bookings = bookingService.getAllBookingsForOwner(userId, bookingState, from, size);
-            return BookingMapper.toBookingOutputDtoList(bookings);
+            return bookingService.getAllBookingsForOwner(userId, bookingState, from, size);
         } catch (IllegalArgumentException e) {
             throw new BadRequestException("Unknown state: UNSUPPORTED_STATUS");
         }
     }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<List<BookingOutputDto>> getBookingsPage(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(defaultValue = "ALL", required = false) String state,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") Integer size
+    ) {
+        log.info("Request bookings page, userId = {}, state = {}, cursor = {}", userId, state, cursor);
+        List<BookingOutputDto> bookings = bookingService.getBookingsAfter(
+                userId, parseState(state), KeysetCursor.decode(cursor), size);
+        return toPage(bookings, size);
+    }
+
+    @GetMapping(path = "owner", params = "cursor")
+    public ResponseEntity<List<BookingOutputDto>> getBookingsPageForOwner(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(defaultValue = "ALL", required = false) String state,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") Integer size
+    ) {
+        log.info("Request bookings page for owner, userId = {}, state = {}, cursor = {}", userId, state, cursor);
+        List<BookingOutputDto> bookings = bookingService.getBookingsForOwnerAfter(
+                userId, parseState(state), KeysetCursor.decode(cursor), size);
+        return toPage(bookings, size);
+    }
+
+    private BookingState parseState(String state) {
+        return BookingState.optionalValueOf(state).orElseThrow(
+                () -> new BadRequestException("Unknown state: UNSUPPORTED_STATUS"));
+    }
+
+    /**
+     * The cursor of the next page is sent in a header, so the body stays the same list as in from/size mode.
+     */
+    private ResponseEntity<List<BookingOutputDto>> toPage(List<BookingOutputDto> bookings, int size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.size() == size) {
+            BookingOutputDto last = bookings.get(bookings.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, new KeysetCursor(last.getStart(), last.getId()).encode());
+        }
+        return response.body(bookings);
+    }
 }
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time window occupied by a booking, [start, end).
+ * Windows are told apart by start and id, the booker is left out of a window that is only looked for or removed.
+ */
+@Data
+@AllArgsConstructor
+public class BookingInterval {
+    private Long id;
+    private Long itemId;
+    private Long bookerId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    public BookingInterval(Long id, Long itemId, LocalDateTime start, LocalDateTime end) {
+        this(id, itemId, null, start, end);
+    }
+
+    public boolean overlaps(LocalDateTime otherStart, LocalDateTime otherEnd) {
+        return start.isBefore(otherEnd) && otherStart.isBefore(end);
+    }
+}
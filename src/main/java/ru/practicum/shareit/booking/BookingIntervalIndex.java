@@ -0,0 +1,153 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.user.UserDeletedEvent;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory per-item index of the time windows taken by WAITING and APPROVED bookings.
+ * Changes go to the tree of one item under its monitor and hold the read side of {@link #rebuildLock},
+ * a rebuild holds the write side while it loads the new trees, so no change is lost to the swap.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+
+    public static final Set<Status> BLOCKING_STATUSES = EnumSet.of(Status.WAITING, Status.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile Map<Long, BookingIntervalTree> trees = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        rebuildLock.writeLock().lock();
+        try {
+            Map<Long, BookingIntervalTree> loaded = new ConcurrentHashMap<>();
+            for (BookingInterval interval : bookingRepository.findIntervalsByStatusIn(BLOCKING_STATUSES)) {
+                loaded.computeIfAbsent(interval.getItemId(), itemId -> new BookingIntervalTree()).insert(interval);
+            }
+            trees = loaded;
+        } finally {
+            rebuildLock.writeLock().unlock();
+        }
+    }
+
+    public boolean hasOverlap(Long itemId, LocalDateTime start, LocalDateTime end) {
+        BookingIntervalTree tree = trees.get(itemId);
+        if (tree == null) return false;
+        synchronized (tree) {
+            return tree.overlaps(start, end);
+        }
+    }
+
+    /**
+     * Returns the taken windows of the item that overlap [start, end), ordered by start.
+     */
+    public List<BookingInterval> findOverlapping(Long itemId, LocalDateTime start, LocalDateTime end) {
+        List<BookingInterval> found = new ArrayList<>();
+        BookingIntervalTree tree = trees.get(itemId);
+        if (tree == null) return found;
+        synchronized (tree) {
+            tree.collectOverlapping(start, end, found);
+        }
+        return found;
+    }
+
+    /**
+     * Takes [start, end) of the item for the booking unless it overlaps a taken window, returns false then.
+     * Within a transaction the window is given back if the transaction does not commit.
+     */
+    public boolean tryAdd(Long itemId, LocalDateTime start, LocalDateTime end, Long bookingId, Long bookerId) {
+        BookingInterval interval = new BookingInterval(bookingId, itemId, bookerId, start, end);
+        rebuildLock.readLock().lock();
+        try {
+            BookingIntervalTree tree = trees.computeIfAbsent(itemId, id -> new BookingIntervalTree());
+            synchronized (tree) {
+                if (tree.overlaps(start, end)) return false;
+                tree.insert(interval);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) remove(interval);
+                }
+            });
+        }
+        return true;
+    }
+
+    public void remove(Booking booking) {
+        remove(toInterval(booking));
+    }
+
+    public void remove(BookingInterval interval) {
+        rebuildLock.readLock().lock();
+        try {
+            BookingIntervalTree tree = trees.get(interval.getItemId());
+            if (tree == null) return;
+            synchronized (tree) {
+                tree.remove(interval);
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drops every window of the items, for items that are deleted.
+     */
+    public void removeItems(Collection<Long> itemIds) {
+        rebuildLock.readLock().lock();
+        try {
+            trees.keySet().removeAll(itemIds);
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the windows of the deleted user's items and of the bookings the user made. The bookings are found
+     * in the trees rather than read before the delete: a booking taken while the user is being deleted has its
+     * window in the tree before it commits, so it is dropped too.
+     */
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        rebuildLock.readLock().lock();
+        try {
+            trees.keySet().removeAll(event.getDeletedItemIds());
+            for (BookingIntervalTree tree : trees.values()) {
+                synchronized (tree) {
+                    tree.removeIf(interval -> event.getUserId().equals(interval.getBookerId()));
+                }
+            }
+        } finally {
+            rebuildLock.readLock().unlock();
+        }
+    }
+
+    private BookingInterval toInterval(Booking booking) {
+        return new BookingInterval(booking.getId(), booking.getItem().getId(), booking.getStart(), booking.getEnd());
+    }
+}
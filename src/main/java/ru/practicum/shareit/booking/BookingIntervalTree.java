@@ -0,0 +1,160 @@
+package ru.practicum.shareit.booking;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Interval tree over the bookings of one item.
+ * It is a treap ordered by (start, id) where every node also keeps the latest end of its subtree,
+ * so an overlap lookup walks a single root-to-leaf path.
+ */
+class BookingIntervalTree {
+
+    private static final Comparator<BookingInterval> ORDER = Comparator
+            .comparing(BookingInterval::getStart)
+            .thenComparing(BookingInterval::getId);
+
+    private Node root;
+    private int size;
+
+    public void insert(BookingInterval interval) {
+        root = insert(root, new Node(interval, ThreadLocalRandom.current().nextInt()));
+        size++;
+    }
+
+    public boolean remove(BookingInterval interval) {
+        int sizeBefore = size;
+        root = remove(root, interval);
+        return size < sizeBefore;
+    }
+
+    /**
+     * Removes every interval matching the filter, walks the whole tree.
+     */
+    public int removeIf(Predicate<BookingInterval> filter) {
+        List<BookingInterval> matching = new ArrayList<>();
+        collect(root, filter, matching);
+        matching.forEach(this::remove);
+        return matching.size();
+    }
+
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        Node node = root;
+        while (node != null && node.maxEnd.isAfter(start)) {
+            if (node.interval.overlaps(start, end)) return true;
+            // if the left subtree reaches past start but has no overlap, nothing to the right can overlap either
+            node = node.left != null && node.left.maxEnd.isAfter(start) ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Adds the intervals overlapping [start, end) to the target in (start, id) order.
+     */
+    public void collectOverlapping(LocalDateTime start, LocalDateTime end, List<BookingInterval> target) {
+        collectOverlapping(root, start, end, target);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void collectOverlapping(Node node, LocalDateTime start, LocalDateTime end, List<BookingInterval> target) {
+        if (node == null || !node.maxEnd.isAfter(start)) return;
+        collectOverlapping(node.left, start, end, target);
+        if (!node.interval.getStart().isBefore(end)) return;
+        if (node.interval.overlaps(start, end)) target.add(node.interval);
+        collectOverlapping(node.right, start, end, target);
+    }
+
+    private void collect(Node node, Predicate<BookingInterval> filter, List<BookingInterval> target) {
+        if (node == null) return;
+        collect(node.left, filter, target);
+        if (filter.test(node.interval)) target.add(node.interval);
+        collect(node.right, filter, target);
+    }
+
+    private Node insert(Node node, Node added) {
+        if (node == null) return added;
+        if (ORDER.compare(added.interval, node.interval) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) return rotateRight(node);
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) return rotateLeft(node);
+        }
+        node.update();
+        return node;
+    }
+
+    private Node remove(Node node, BookingInterval interval) {
+        if (node == null) return null;
+        int cmp = ORDER.compare(interval, node.interval);
+        if (cmp == 0) {
+            size--;
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = remove(node.left, interval);
+        } else {
+            node.right = remove(node.right, interval);
+        }
+        node.update();
+        return node;
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) return right;
+        if (right == null) return left;
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+
+    private static class Node {
+        private final BookingInterval interval;
+        private final int priority;
+        private LocalDateTime maxEnd;
+        private Node left;
+        private Node right;
+
+        Node(BookingInterval interval, int priority) {
+            this.interval = interval;
+            this.priority = priority;
+            this.maxEnd = interval.getEnd();
+        }
+
+        void update() {
+            maxEnd = interval.getEnd();
+            if (left != null && left.maxEnd.isAfter(maxEnd)) maxEnd = left.maxEnd;
+            if (right != null && right.maxEnd.isAfter(maxEnd)) maxEnd = right.maxEnd;
+        }
+    }
+}
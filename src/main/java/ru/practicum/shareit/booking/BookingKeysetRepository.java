@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.paging.KeysetCursor;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Seek pagination over bookings ordered by (start DESC, id DESC).
+ * A null cursor returns the first page.
+ */
+public interface BookingKeysetRepository {
+
+    List<BookingOutputDto> findByBookerAfter(User booker, BookingState state, LocalDateTime now, KeysetCursor cursor, int size);
+
+    List<BookingOutputDto> findByOwnerAfter(User owner, BookingState state, LocalDateTime now, KeysetCursor cursor, int size);
+}
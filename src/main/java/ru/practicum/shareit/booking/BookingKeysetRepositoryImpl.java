@@ -0,0 +1,92 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.paging.KeysetCursor;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+class BookingKeysetRepositoryImpl implements BookingKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<BookingOutputDto> findByBookerAfter(User booker, BookingState state, LocalDateTime now,
+                                           KeysetCursor cursor, int size) {
+        return find(false, booker, state, now, cursor, size);
+    }
+
+    @Override
+    public List<BookingOutputDto> findByOwnerAfter(User owner, BookingState state, LocalDateTime now,
+                                          KeysetCursor cursor, int size) {
+        return find(true, owner, state, now, cursor, size);
+    }
+
+    private List<BookingOutputDto> find(boolean byOwner, User user, BookingState state, LocalDateTime now,
+                               KeysetCursor cursor, int size) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<BookingOutputDto> query = cb.createQuery(BookingOutputDto.class);
+        Root<Booking> booking = query.from(Booking.class);
+        Join<Booking, Item> item = booking.join("item");
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Long> id = booking.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(byOwner
+                ? cb.equal(booking.get("ownerId"), user.getId())
+                : cb.equal(booking.get("booker"), user));
+
+        switch (state) {
+            case ALL:
+                break;
+            case CURRENT:
+                predicates.add(cb.lessThanOrEqualTo(start, now));
+                predicates.add(cb.greaterThanOrEqualTo(end, now));
+                break;
+            case PAST:
+                predicates.add(cb.lessThan(end, now));
+                break;
+            case FUTURE:
+                predicates.add(cb.greaterThan(start, now));
+                break;
+            case WAITING:
+                predicates.add(cb.equal(booking.get("status"), Status.WAITING));
+                break;
+            case REJECTED:
+                predicates.add(cb.equal(booking.get("status"), Status.REJECTED));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
+        }
+
+        if (cursor != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(start, cursor.getStart()),
+                    cb.and(cb.equal(start, cursor.getStart()), cb.lessThan(id, cursor.getId()))
+            ));
+        }
+
+        query.select(cb.construct(BookingOutputDto.class, id, start, end, booking.get("status"),
+                        item.get("id"), item.get("name"), booking.get("booker").get("id")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(start), cb.desc(id));
+        return em.createQuery(query)
+                .setMaxResults(size)
+                .getResultList();
+    }
+}
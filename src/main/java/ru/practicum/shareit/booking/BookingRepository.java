@@ -2,62 +2,110 @@ package ru.practicum.shareit.booking;
 
 import org.hibernate.annotations.SortComparator;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.dto.BookingOwnershipView;
+import ru.practicum.shareit.booking.dto.ExtremumBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingKeysetRepository,
+        BookingStatusBatchRepository {
 
-    @SortComparator(BookingDateComparator.class)
-    List<Booking> findByBooker(User booker, Pageable pageable);
-
-    @SortComparator(BookingDateComparator.class)
-    List<Booking> findByBookerAndEndIsBefore(User booker, LocalDateTime end, Pageable pageable);
-
-    @SortComparator(BookingDateComparator.class)
-    List<Booking> findByBookerAndStartIsAfter(User booker, LocalDateTime start, Pageable pageable);
-
-    @SortComparator(BookingDateComparator.class)
-    @Query("select b from Booking b where b.booker = :booker and b.start <= current_timestamp and b.end >= current_timestamp")
-    List<Booking> findCurrentByBooker(User booker, Pageable pageable);
-
-    @SortComparator(BookingDateComparator.class)
-    List<Booking> findByBookerAndStatus(User booker, Status status, Pageable pageable);
-
-    @SortComparator(BookingDateComparator.class)
-    List<Booking> findByBookerAndItem(User booker, Item item);
+    @Override
+    @EntityGraph(Booking.DETAIL)
+    Optional<Booking> findById(Long id);
 
+    /**
+     * Selects only what {@link BookingOutputDto} needs, without loading the item, the users and the request.
+     */
+    String OUTPUT = "select new ru.practicum.shareit.booking.dto.BookingOutputDto(" +
+            "b.id, b.start, b.end, b.status, i.id, i.name, b.booker.id) from Booking b join b.item i ";
 
-    @SortComparator(BookingDateComparator.class)
-    @Query("select b from Booking b, Item i where b.item = i and i.owner = :owner")
-    List<Booking> findByOwner(User owner, Pageable pageable);
-
-    @SortComparator(BookingDateComparator.class)
-    @Query("select b from Booking b, Item i where b.item = i and i.owner = :owner and b.end <= :end")
-    List<Booking> findByOwnerAndEndIsBefore(User owner, LocalDateTime end, Pageable pageable);
+    @Query(OUTPUT + "where b.booker = :booker")
+    List<BookingOutputDto> findByBooker(User booker, Pageable pageable);
 
-    @SortComparator(BookingDateComparator.class)
-    @Query("select b from Booking b, Item i where b.item = i and i.owner = :owner and b.start >= :start")
-    List<Booking> findByOwnerAndStartIsAfter(User owner, LocalDateTime start, Pageable pageable);
+    @Query(OUTPUT + "where b.booker = :booker and b.end < :end")
+    List<BookingOutputDto> findByBookerAndEndIsBefore(User booker, LocalDateTime end, Pageable pageable);
 
-    @SortComparator(BookingDateComparator.class)
-    @Query("select b from Booking b, Item i where b.item = i and i.owner = :owner and b.start <= current_timestamp and b.end >= current_timestamp")
-    List<Booking> findCurrentByOwner(User owner, Pageable pageable);
+    @Query(OUTPUT + "where b.booker = :booker and b.start > :start")
+    List<BookingOutputDto> findByBookerAndStartIsAfter(User booker, LocalDateTime start, Pageable pageable);
 
-    @SortComparator(BookingDateComparator.class)
-    @Query("select b from Booking b, Item i where b.item = i and i.owner = :owner and b.status = :status")
-    List<Booking> findByOwnerAndStatus(User owner, Status status, Pageable pageable);
+    @Query(OUTPUT + "where b.booker = :booker and b.start <= current_timestamp and b.end >= current_timestamp")
+    List<BookingOutputDto> findCurrentByBooker(User booker, Pageable pageable);
 
-    @SortComparator(BookingDateComparator.class)
-    List<Booking> findByItemAndEndIsBefore(Item item, LocalDateTime end);
+    @Query(OUTPUT + "where b.booker = :booker and b.status = :status")
+    List<BookingOutputDto> findByBookerAndStatus(User booker, Status status, Pageable pageable);
 
     @SortComparator(BookingDateComparator.class)
-    List<Booking> findByItemAndStartIsAfter(Item item, LocalDateTime start);
+    List<Booking> findByBookerAndItem(User booker, Item item);
 
+    /*
+     * The owner listings filter on bookings.owner_id and are ordered by start,
+     * which is what the (owner_id, start_date) and (owner_id, status, start_date) indexes cover.
+     */
+
+    @Query(OUTPUT + "where b.ownerId = :ownerId")
+    List<BookingOutputDto> findByOwner(Long ownerId, Pageable pageable);
+
+    @Query(OUTPUT + "where b.ownerId = :ownerId and b.end < :end")
+    List<BookingOutputDto> findByOwnerAndEndIsBefore(Long ownerId, LocalDateTime end, Pageable pageable);
+
+    @Query(OUTPUT + "where b.ownerId = :ownerId and b.start > :start")
+    List<BookingOutputDto> findByOwnerAndStartIsAfter(Long ownerId, LocalDateTime start, Pageable pageable);
+
+    @Query(OUTPUT + "where b.ownerId = :ownerId and b.start <= current_timestamp and b.end >= current_timestamp")
+    List<BookingOutputDto> findCurrentByOwner(Long ownerId, Pageable pageable);
+
+    @Query(OUTPUT + "where b.ownerId = :ownerId and b.status = :status")
+    List<BookingOutputDto> findByOwnerAndStatus(Long ownerId, Status status, Pageable pageable);
+
+    @Query(value = "select e.id as id, e.item_id as itemId, e.booker_id as bookerId, e.is_last as isLast from (" +
+            "  select b.id, b.item_id, b.booker_id, true as is_last, " +
+            "    row_number() over (partition by b.item_id order by b.start_date desc, b.id desc) as rn " +
+            "  from bookings b where b.item_id in (:itemIds) and b.end_date < :now " +
+            "  union all " +
+            "  select b.id, b.item_id, b.booker_id, false as is_last, " +
+            "    row_number() over (partition by b.item_id order by b.start_date, b.id) as rn " +
+            "  from bookings b where b.item_id in (:itemIds) and b.start_date > :now" +
+            ") e where e.rn = 1", nativeQuery = true)
+    List<ExtremumBookingView> findLastAndNextByItemIdIn(Collection<Long> itemIds, LocalDateTime now);
+
+    /**
+     * The nearest moment after now when a booking of the item starts or ends.
+     */
+    @Query("select min(case when b.start > :now then b.start else b.end end) from Booking b " +
+            "where b.item.id = :itemId and b.end > :now")
+    LocalDateTime findNextBoundary(Long itemId, LocalDateTime now);
+
+    /**
+     * Moves a booking out of WAITING. Returns 0 when another request has already done it.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1 " +
+            "where b.id = :id and b.status = ru.practicum.shareit.booking.model.Status.WAITING")
+    int updateStatusIfWaiting(Long id, Status status);
+
+    @Query("select b.id as id, b.item.id as itemId, b.ownerId as ownerId, b.status as status, " +
+            "b.start as start, b.end as end from Booking b where b.id in :ids")
+    List<BookingOwnershipView> findOwnershipByIdIn(Collection<Long> ids);
+
+    @Query("select new ru.practicum.shareit.booking.BookingInterval(b.id, b.item.id, b.booker.id, b.start, b.end) " +
+            "from Booking b where b.status in :statuses")
+    List<BookingInterval> findIntervalsByStatusIn(Collection<Status> statuses);
+
+    @Query("select distinct b.item.id from Booking b where b.booker.id = ?1")
+    List<Long> findItemIdsByBookerId(Long bookerId);
 }
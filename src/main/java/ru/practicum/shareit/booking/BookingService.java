@@ -1,7 +1,10 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.paging.KeysetCursor;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
@@ -12,11 +15,17 @@ public interface BookingService {
 
     Booking setBookingApproveStatus(Long bookingId, Long userId, boolean isApproved);
 
+    List<BookingApprovalResultDto> setBookingsApproveStatus(List<Long> bookingIds, Long userId, boolean isApproved);
+
     Booking getBookingInfo(Long bookingId, Long userId);
 
-    List<Booking> getAllBookings(Long bookerId, BookingState state, Integer from, Integer size);
+    List<BookingOutputDto> getAllBookings(Long bookerId, BookingState state, Integer from, Integer size);
+
+    List<BookingOutputDto> getAllBookingsForOwner(Long ownerId, BookingState state, Integer from, Integer size);
+
+    List<BookingOutputDto> getBookingsAfter(Long bookerId, BookingState state, KeysetCursor cursor, int size);
 
-    List<Booking> getAllBookingsForOwner(Long ownerId, BookingState state, Integer from, Integer size);
+    List<BookingOutputDto> getBookingsForOwnerAfter(Long ownerId, BookingState state, KeysetCursor cursor, int size);
 
     User getUser(Long userId);
 
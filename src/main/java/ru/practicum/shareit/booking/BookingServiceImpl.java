@@ -4,28 +4,49 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.dto.BookingOwnershipView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemInfoCache;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchCache;
 import ru.practicum.shareit.item.storage.ItemRepository;
-import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.paging.KeysetCursor;
 import ru.practicum.shareit.paging.OffsetLimitPageable;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    static final int MAX_BULK_SIZE = 100;
+
     private final BookingRepository bookingRepository;
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemInfoCache itemInfoCache;
 
     @Override
+    @Transactional
     public Booking addNewBooking(BookingInputDto bookingInputDto, Long userId) {
         Item item = itemRepository.findById(bookingInputDto.getItemId())
                 .orElseThrow(() -> new NotFoundException("item not found"));
@@ -39,10 +60,20 @@ public class BookingServiceImpl implements BookingService {
         if (bookingInputDto.getEnd().isBefore(bookingInputDto.getStart())) {
             throw new BadRequestException("booking end is before start");
         }
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new NotFoundException("user not found"));
+        User user = getUser(userId);
+        if (bookingIntervalIndex.hasOverlap(item.getId(), bookingInputDto.getStart(), bookingInputDto.getEnd())) {
+            throw new ConflictException("item is already booked for these dates");
+        }
         Booking booking = BookingMapper.toBooking(bookingInputDto, null, item, user, Status.WAITING);
         bookingRepository.save(booking);
+        // checked again together with the insert, a concurrent booking may have taken the window since;
+        // the exception rolls the saved row back
+        if (!bookingIntervalIndex.tryAdd(item.getId(), booking.getStart(), booking.getEnd(), booking.getId(),
+                userId)) {
+            throw new ConflictException("item is already booked for these dates");
+        }
+        itemSearchCache.itemTouched(item.getId());
+        itemInfoCache.evictBookings(item.getId());
         return booking;
     }
 
@@ -60,12 +91,79 @@ public class BookingServiceImpl implements BookingService {
             throw new NotFoundException("Booking status can only be changed by item's owner");
         }
 
-        booking.setStatus(isApproved ? Status.APPROVED : Status.REJECTED);
-        bookingRepository.save(booking);
+        Status status = isApproved ? Status.APPROVED : Status.REJECTED;
+        if (bookingRepository.updateStatusIfWaiting(bookingId, status) == 0) {
+            throw new ConflictException("Booking status has already been changed by another request");
+        }
+        booking.setStatus(status);
+        if (!isApproved) {
+            bookingIntervalIndex.remove(booking);
+        }
+        itemSearchCache.itemTouched(booking.getItem().getId());
+        itemInfoCache.evictBookings(booking.getItem().getId());
 
         return booking;
     }
 
+    @Override
+    public List<BookingApprovalResultDto> setBookingsApproveStatus(List<Long> bookingIds, Long userId,
+                                                                   boolean isApproved) {
+        if (bookingIds == null || bookingIds.isEmpty()) throw new BadRequestException("no booking ids");
+        if (bookingIds.size() > MAX_BULK_SIZE) {
+            throw new BadRequestException("more than " + MAX_BULK_SIZE + " booking ids");
+        }
+        if (bookingIds.stream().anyMatch(Objects::isNull)) throw new BadRequestException("null booking id");
+        getUser(userId);
+        LinkedHashSet<Long> ids = new LinkedHashSet<>(bookingIds);
+        Map<Long, BookingOwnershipView> bookings = bookingRepository.findOwnershipByIdIn(ids).stream()
+                .collect(Collectors.toMap(BookingOwnershipView::getId, Function.identity()));
+
+        Map<Long, BookingApprovalResultDto.Result> results = new LinkedHashMap<>();
+        List<Long> waiting = new ArrayList<>();
+        for (Long id : ids) {
+            BookingOwnershipView booking = bookings.get(id);
+            if (booking == null || !userId.equals(booking.getOwnerId())) {
+                results.put(id, BookingApprovalResultDto.Result.NOT_FOUND);
+            } else if (booking.getStatus() != Status.WAITING) {
+                results.put(id, BookingApprovalResultDto.Result.NOT_WAITING);
+            } else {
+                results.put(id, null);
+                waiting.add(id);
+            }
+        }
+
+        Status status = isApproved ? Status.APPROVED : Status.REJECTED;
+        int[] updated = bookingRepository.updateStatusesIfWaiting(waiting, status);
+        List<Long> unknown = new ArrayList<>();
+        for (int i = 0; i < waiting.size(); i++) {
+            if (updated[i] != 0 && updated[i] != 1) unknown.add(waiting.get(i));
+        }
+        // the driver may not report a count, the status read back then tells whether the booking moved
+        Map<Long, Status> reread = unknown.isEmpty() ? Map.of() : bookingRepository.findOwnershipByIdIn(unknown)
+                .stream()
+                .collect(Collectors.toMap(BookingOwnershipView::getId, BookingOwnershipView::getStatus));
+        for (int i = 0; i < waiting.size(); i++) {
+            Long id = waiting.get(i);
+            boolean moved = updated[i] == 1 || (updated[i] != 0 && reread.get(id) == status);
+            if (!moved) {
+                results.put(id, BookingApprovalResultDto.Result.CONFLICT);
+                continue;
+            }
+            results.put(id, BookingApprovalResultDto.Result.valueOf(status.name()));
+            BookingOwnershipView booking = bookings.get(id);
+            if (!isApproved) {
+                bookingIntervalIndex.remove(
+                        new BookingInterval(id, booking.getItemId(), booking.getStart(), booking.getEnd()));
+            }
+            itemSearchCache.itemTouched(booking.getItemId());
+            itemInfoCache.evictBookings(booking.getItemId());
+        }
+
+        return results.entrySet().stream()
+                .map(result -> new BookingApprovalResultDto(result.getKey(), result.getValue()))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public Booking getBookingInfo(Long bookingId, Long userId) {
         User user = getUser(userId);
@@ -82,7 +180,7 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<Booking> getAllBookings(Long bookerId, BookingState state, Integer from, Integer size) {
+    public List<BookingOutputDto> getAllBookings(Long bookerId, BookingState state, Integer from, Integer size) {
         User booker = getUser(bookerId);
         Pageable pageable = OffsetLimitPageable.create(from, size, Sort.by(Sort.Direction.DESC, "start"));
 
@@ -105,31 +203,45 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<Booking> getAllBookingsForOwner(Long ownerId, BookingState state, Integer from, Integer size) {
-        User owner = getUser(ownerId);
+    public List<BookingOutputDto> getAllBookingsForOwner(Long ownerId, BookingState state, Integer from, Integer size) {
+        getUser(ownerId); // just validate
         Pageable pageable = OffsetLimitPageable.create(from, size, Sort.by(Sort.Direction.DESC, "start"));
 
         switch (state) {
             case ALL:
-                return bookingRepository.findByOwner(owner, pageable);
+                return bookingRepository.findByOwner(ownerId, pageable);
             case CURRENT:
-                return bookingRepository.findCurrentByOwner(owner, pageable);
+                return bookingRepository.findCurrentByOwner(ownerId, pageable);
             case PAST:
-                return bookingRepository.findByOwnerAndEndIsBefore(owner, LocalDateTime.now(), pageable);
+                return bookingRepository.findByOwnerAndEndIsBefore(ownerId, LocalDateTime.now(), pageable);
             case FUTURE:
-                return bookingRepository.findByOwnerAndStartIsAfter(owner, LocalDateTime.now(), pageable);
+                return bookingRepository.findByOwnerAndStartIsAfter(ownerId, LocalDateTime.now(), pageable);
             case WAITING:
-                return bookingRepository.findByOwnerAndStatus(owner, Status.WAITING, pageable);
+                return bookingRepository.findByOwnerAndStatus(ownerId, Status.WAITING, pageable);
             case REJECTED:
-                return bookingRepository.findByOwnerAndStatus(owner, Status.REJECTED, pageable);
+                return bookingRepository.findByOwnerAndStatus(ownerId, Status.REJECTED, pageable);
         }
 
         throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
     }
 
+    @Override
+    public List<BookingOutputDto> getBookingsAfter(Long bookerId, BookingState state, KeysetCursor cursor, int size) {
+        User booker = getUser(bookerId);
+        verifyPageSize(size);
+        return bookingRepository.findByBookerAfter(booker, state, LocalDateTime.now(), cursor, size);
+    }
+
+    @Override
+    public List<BookingOutputDto> getBookingsForOwnerAfter(Long ownerId, BookingState state, KeysetCursor cursor, int size) {
+        User owner = getUser(ownerId);
+        verifyPageSize(size);
+        return bookingRepository.findByOwnerAfter(owner, state, LocalDateTime.now(), cursor, size);
+    }
+
     @Override
     public User getUser(Long userId) {
-        return userRepository.findById(userId)
+        return userCache.findById(userId)
                 .orElseThrow(() -> new NotFoundException("user not found"));
     }
 
@@ -145,4 +257,8 @@ public class BookingServiceImpl implements BookingService {
             throw new BadRequestException("Date is in the past");
         }
     }
+
+    private void verifyPageSize(int size) {
+        if (size <= 0) throw new BadRequestException("size must be positive");
+    }
 }
@@ -2,7 +2,7 @@ package ru.practicum.shareit.booking;
 
 import java.util.Optional;
 
-enum BookingState {
+public enum BookingState {
     ALL, CURRENT, PAST, FUTURE, WAITING, REJECTED;
 
 
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.model.Status;
+
+import java.util.List;
+
+public interface BookingStatusBatchRepository {
+
+    /**
+     * Moves every listed booking out of WAITING in one JDBC batch.
+     * Returns the update count per booking, 0 means the booking was no longer waiting.
+     * A driver may report a count it does not know, such as {@link java.sql.Statement#SUCCESS_NO_INFO}.
+     */
+    int[] updateStatusesIfWaiting(List<Long> ids, Status status);
+}
@@ -0,0 +1,28 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+class BookingStatusBatchRepositoryImpl implements BookingStatusBatchRepository {
+
+    private static final String UPDATE_IF_WAITING = "update bookings set status = ?, version = version + 1 " +
+            "where id = ? and status = 'WAITING'";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public int[] updateStatusesIfWaiting(List<Long> ids, Status status) {
+        if (ids.isEmpty()) return new int[0];
+        List<Object[]> args = ids.stream()
+                .map(id -> new Object[]{status.name(), id})
+                .collect(Collectors.toList());
+        return jdbcTemplate.batchUpdate(UPDATE_IF_WAITING, args);
+    }
+}
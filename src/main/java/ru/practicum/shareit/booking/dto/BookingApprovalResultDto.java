@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookingApprovalResultDto {
+    private Long bookingId;
+    private Result result;
+
+    public enum Result {
+        APPROVED,
+        REJECTED,
+        NOT_FOUND,
+        NOT_WAITING,
+        CONFLICT
+    }
+}
@@ -4,11 +4,13 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import ru.practicum.shareit.booking.model.Status;
-import ru.practicum.shareit.item.model.Item;
-import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 
+/**
+ * A booking as it is sent to clients: only the item name and the ids of the item and the booker are included.
+ * List queries of {@link ru.practicum.shareit.booking.BookingRepository} build it with a constructor expression.
+ */
 @Data
 @AllArgsConstructor
 @RequiredArgsConstructor
@@ -16,8 +18,25 @@ public class BookingOutputDto {
     private Long id;
     private LocalDateTime start;
     private LocalDateTime end;
-    private Item item;
-    private User booker;
+    private BookedItem item;
+    private Booker booker;
     private Status status;
 
+    public BookingOutputDto(Long id, LocalDateTime start, LocalDateTime end, Status status,
+                            Long itemId, String itemName, Long bookerId) {
+        this(id, start, end, new BookedItem(itemId, itemName), new Booker(bookerId), status);
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class BookedItem {
+        private Long id;
+        private String name;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class Booker {
+        private Long id;
+    }
 }
@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking.dto;
+
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+
+/**
+ * What the owner-side status change needs to know about a booking, without loading its item and booker.
+ */
+public interface BookingOwnershipView {
+    Long getId();
+
+    Long getItemId();
+
+    Long getOwnerId();
+
+    Status getStatus();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
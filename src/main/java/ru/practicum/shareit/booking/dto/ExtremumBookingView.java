@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * The last finished or the next upcoming booking of an item.
+ */
+public interface ExtremumBookingView {
+    Long getId();
+
+    Long getItemId();
+
+    Long getBookerId();
+
+    Boolean getIsLast();
+}
@@ -13,8 +13,16 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@NamedEntityGraph(name = Booking.DETAIL, attributeNodes = {
+        @NamedAttributeNode(value = "item", subgraph = "item"),
+        @NamedAttributeNode("booker")
+}, subgraphs = @NamedSubgraph(name = "item", attributeNodes = @NamedAttributeNode("owner")))
 @Table(name = "bookings")
 public class Booking {
+    /**
+     * A single booking as it is answered and checked against its booker and the item's owner.
+     */
+    public static final String DETAIL = "Booking.detail";
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,12 +32,29 @@ public class Booking {
     private LocalDateTime start;
     @Column(name = "end_date")
     private LocalDateTime end;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     private Item item;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
     private User booker;
     @Enumerated(EnumType.STRING)
     private Status status;
+    @Version
+    private Long version;
+    /**
+     * Owner of the booked item, kept on the booking for the owner listings.
+     * Items never change hands, so it is enough to take it once when the booking is created.
+     */
+    @Column(name = "owner_id", updatable = false)
+    private Long ownerId;
+
+    public Booking(Long id, LocalDateTime start, LocalDateTime end, Item item, User booker, Status status) {
+        this(id, start, end, item, booker, status, null, null);
+    }
+
+    @PrePersist
+    private void fillOwnerId() {
+        ownerId = item.getOwner().getId();
+    }
 }
@@ -0,0 +1,362 @@
+package ru.practicum.shareit.generator;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.ItemInfoCache;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.requests.search.ItemRequestIndex;
+import ru.practicum.shareit.user.UserCache;
+
+import javax.persistence.EntityManagerFactory;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Replaces the data with a synthetic dataset of the configured size, for load tests and query plans on real volumes.
+ * Item owners and booked items follow Zipf distributions, so a few owners and items get most of the rows.
+ * Rows are written with JDBC batches and are the same for the same seed and anchor.
+ * Runs on start with the generate profile, see README for the properties.
+ */
+@Slf4j
+@Component
+@Profile("generate")
+public class DataGenerator implements ApplicationRunner {
+
+    private static final String[] WORDS = {"drill", "saw", "hammer", "ladder", "tent", "bike", "kayak", "camera",
+            "tripod", "projector", "speaker", "guitar", "mixer", "scooter", "grill", "heater", "vacuum", "sander",
+            "cordless", "electric", "folding", "portable", "heavy", "light", "old", "new", "large", "small", "steel",
+            "wooden", "waterproof", "for", "with", "and", "the", "garden", "kitchen", "travel", "winter", "summer"};
+    private static final Status[] PAST_STATUSES = {Status.APPROVED, Status.APPROVED, Status.APPROVED,
+            Status.APPROVED, Status.APPROVED, Status.APPROVED, Status.APPROVED, Status.APPROVED,
+            Status.REJECTED, Status.CANCELED};
+    private static final Status[] FUTURE_STATUSES = {Status.WAITING, Status.WAITING, Status.WAITING,
+            Status.APPROVED, Status.APPROVED, Status.APPROVED, Status.APPROVED, Status.APPROVED, Status.APPROVED,
+            Status.REJECTED};
+    private static final int PAST_MINUTES = 365 * 24 * 60;
+    private static final int FUTURE_MINUTES = 60 * 24 * 60;
+    private static final int TIMELINE_MINUTES = PAST_MINUTES + FUTURE_MINUTES;
+    private static final int MIN_SLOT_MINUTES = 2 * 24 * 60;
+    private static final int MAX_BOOKING_HOURS = 72;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemRequestIndex itemRequestIndex;
+    private final UserCache userCache;
+    private final ItemInfoCache itemInfoCache;
+    private final ItemSearchCache itemSearchCache;
+
+    private final long seed;
+    private final String anchor;
+    private final int users;
+    private final int requests;
+    private final int items;
+    private final int bookings;
+    private final int comments;
+    private final double ownerSkew;
+    private final double itemSkew;
+    private final int batchSize;
+
+    public DataGenerator(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            EntityManagerFactory entityManagerFactory,
+            BookingIntervalIndex bookingIntervalIndex,
+            ItemSearchIndex itemSearchIndex,
+            ItemRequestIndex itemRequestIndex,
+            UserCache userCache,
+            ItemInfoCache itemInfoCache,
+            ItemSearchCache itemSearchCache,
+            @Value("${shareit.generator.seed:42}") long seed,
+            @Value("${shareit.generator.anchor:}") String anchor,
+            @Value("${shareit.generator.users:10000}") int users,
+            @Value("${shareit.generator.requests:5000}") int requests,
+            @Value("${shareit.generator.items:50000}") int items,
+            @Value("${shareit.generator.bookings:1000000}") int bookings,
+            @Value("${shareit.generator.comments:100000}") int comments,
+            @Value("${shareit.generator.owner-skew:1.2}") double ownerSkew,
+            @Value("${shareit.generator.item-skew:1.0}") double itemSkew,
+            @Value("${shareit.generator.batch-size:1000}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemRequestIndex = itemRequestIndex;
+        this.userCache = userCache;
+        this.itemInfoCache = itemInfoCache;
+        this.itemSearchCache = itemSearchCache;
+        this.seed = seed;
+        this.anchor = anchor;
+        this.users = users;
+        this.requests = requests;
+        this.items = items;
+        this.bookings = bookings;
+        this.comments = comments;
+        this.ownerSkew = ownerSkew;
+        this.itemSkew = itemSkew;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        generate();
+    }
+
+    public void generate() {
+        if (users < 2 && bookings > 0) throw new IllegalStateException("bookings need at least two users");
+        if (items < 1 && bookings > 0) throw new IllegalStateException("bookings need at least one item");
+        if (bookings < 1 && comments > 0) throw new IllegalStateException("comments are left on bookings");
+        long started = System.nanoTime();
+        Random random = new Random(seed);
+        LocalDateTime now = anchor.isBlank() ? LocalDate.now().atStartOfDay() : LocalDateTime.parse(anchor);
+        log.info("Generating {} users, {} requests, {} items, {} bookings, {} comments, seed {}, anchor {}",
+                users, requests, items, bookings, comments, seed, now);
+
+        clear();
+        insertUsers();
+        insertRequests(random, now);
+        int[] owners = insertItems(random);
+        BookingRows rows = insertBookings(random, now, owners);
+        insertComments(random, now, rows);
+        // the planner's selectivity figures still describe the empty tables
+        jdbcTemplate.execute("analyze");
+
+        entityManagerFactory.getCache().evictAll();
+        userCache.invalidateAll();
+        itemInfoCache.invalidateAll();
+        itemSearchCache.invalidateAll();
+        bookingIntervalIndex.rebuild();
+        itemSearchIndex.rebuild();
+        itemRequestIndex.rebuild();
+        log.info("Dataset generated in {} s", (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    private void clear() {
+        jdbcTemplate.update("delete from comments");
+        jdbcTemplate.update("delete from bookings");
+        jdbcTemplate.update("delete from items");
+        jdbcTemplate.update("delete from requests");
+        jdbcTemplate.update("delete from users");
+    }
+
+    private void insertUsers() {
+        insert("users", "insert into users (id, name, email) values (?, ?, ?)", users, (statement, id) -> {
+            statement.setLong(1, id);
+            statement.setString(2, "user " + id);
+            statement.setString(3, "user" + id + "@generated.shareit");
+        });
+    }
+
+    private void insertRequests(Random random, LocalDateTime now) {
+        insert("requests", "insert into requests (id, description, requestor_id, created) values (?, ?, ?, ?)",
+                requests, (statement, id) -> {
+                    statement.setLong(1, id);
+                    statement.setString(2, "need " + words(random, 3));
+                    statement.setLong(3, 1 + random.nextInt(users));
+                    statement.setTimestamp(4, Timestamp.valueOf(now.minusMinutes(random.nextInt(PAST_MINUTES))));
+                });
+    }
+
+    /**
+     * Returns the owner of every item, indexed by item id.
+     */
+    private int[] insertItems(Random random) {
+        int[] owners = new int[items + 1];
+        if (items == 0) return owners;
+        ZipfSampler ownerSampler = new ZipfSampler(users, ownerSkew);
+        insert("items", "insert into items (id, name, description, available, owner_id, request_id) "
+                + "values (?, ?, ?, ?, ?, ?)", items, (statement, id) -> {
+                    owners[id] = ownerSampler.sample(random);
+                    statement.setLong(1, id);
+                    statement.setString(2, words(random, 2));
+                    statement.setString(3, words(random, 6));
+                    statement.setBoolean(4, random.nextInt(10) != 0);
+                    statement.setLong(5, owners[id]);
+                    if (requests > 0 && random.nextInt(10) == 0) {
+                        statement.setLong(6, 1 + random.nextInt(requests));
+                    } else {
+                        statement.setNull(6, Types.BIGINT);
+                    }
+                });
+        return owners;
+    }
+
+    /**
+     * WAITING and APPROVED bookings of an item never overlap, as the service keeps it: the timeline of every item
+     * is cut into as many equal slots as it has bookings, at most one per {@link #MIN_SLOT_MINUTES}, and each
+     * booking falls inside its own slot. Bookings of a popular item beyond its slots are REJECTED or CANCELED
+     * and may fall anywhere.
+     */
+    private BookingRows insertBookings(Random random, LocalDateTime now, int[] owners) {
+        BookingRows rows = new BookingRows(bookings);
+        if (bookings == 0) return rows;
+        ZipfSampler itemSampler = new ZipfSampler(items, itemSkew);
+        int[] perItem = new int[items + 1];
+        for (int i = 0; i < bookings; i++) {
+            rows.item[i] = itemSampler.sample(random);
+            perItem[rows.item[i]]++;
+        }
+        int[] taken = new int[items + 1];
+        insert("bookings", "insert into bookings (id, start_date, end_date, item_id, booker_id, status, owner_id) "
+                + "values (?, ?, ?, ?, ?, ?, ?)", bookings, (statement, id) -> {
+                    int item = rows.item[id - 1];
+                    int booker = 1 + random.nextInt(users);
+                    if (booker == owners[item]) booker = booker % users + 1;
+                    int slots = Math.min(perItem[item], TIMELINE_MINUTES / MIN_SLOT_MINUTES);
+                    int slot = taken[item]++;
+                    int startMinute;
+                    int endMinute;
+                    Status status;
+                    if (slot < slots) {
+                        int slotLength = TIMELINE_MINUTES / slots;
+                        int hours = 1 + random.nextInt(Math.min(MAX_BOOKING_HOURS, slotLength / 60 / 2));
+                        startMinute = slot * slotLength - PAST_MINUTES + random.nextInt(slotLength - hours * 60 + 1);
+                        endMinute = startMinute + hours * 60;
+                        Status[] statuses = endMinute < 0 ? PAST_STATUSES : FUTURE_STATUSES;
+                        status = statuses[random.nextInt(statuses.length)];
+                    } else {
+                        startMinute = random.nextInt(TIMELINE_MINUTES) - PAST_MINUTES;
+                        endMinute = startMinute + 60 * (1 + random.nextInt(MAX_BOOKING_HOURS));
+                        status = random.nextInt(2) == 0 ? Status.REJECTED : Status.CANCELED;
+                    }
+                    rows.booker[id - 1] = booker;
+                    rows.endMinute[id - 1] = endMinute;
+                    statement.setLong(1, id);
+                    statement.setTimestamp(2, Timestamp.valueOf(now.plusMinutes(startMinute)));
+                    statement.setTimestamp(3, Timestamp.valueOf(now.plusMinutes(endMinute)));
+                    statement.setLong(4, item);
+                    statement.setLong(5, booker);
+                    statement.setString(6, status.name());
+                    statement.setLong(7, owners[item]);
+                });
+        return rows;
+    }
+
+    /**
+     * Every comment is left by the booker of a random booking, so comments follow item popularity too.
+     */
+    private void insertComments(Random random, LocalDateTime now, BookingRows rows) {
+        insert("comments", "insert into comments (id, text, item_id, author_id, created) values (?, ?, ?, ?, ?)",
+                comments, (statement, id) -> {
+                    int booking = random.nextInt(bookings);
+                    statement.setLong(1, id);
+                    statement.setString(2, words(random, 8));
+                    statement.setLong(3, rows.item[booking]);
+                    statement.setLong(4, rows.booker[booking]);
+                    statement.setTimestamp(5, Timestamp.valueOf(now.plusMinutes(Math.min(rows.endMinute[booking], 0))));
+                });
+    }
+
+    /**
+     * Writes rows with ids 1..count, a transaction per batch, and moves the id sequence past them.
+     */
+    private void insert(String table, String sql, int count, RowWriter writer) {
+        long started = System.nanoTime();
+        List<String> indexes = dropIndexes(table);
+        for (int from = 0; from < count; from += batchSize) {
+            int first = from + 1;
+            int size = Math.min(batchSize, count - from);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql,
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement statement, int i) throws SQLException {
+                            writer.write(statement, first + i);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return size;
+                        }
+                    }));
+        }
+        indexes.forEach(jdbcTemplate::execute);
+        jdbcTemplate.execute("alter table " + table + " alter column id restart with " + (count + 1));
+        long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Inserted {} {} in {} ms, {} rows/min", count, table, millis, count * 60_000L / millis);
+    }
+
+    /**
+     * Every secondary index costs about as much as the row itself on a bulk load, built once afterwards it is
+     * several times cheaper. Drops the ix_ indexes of schema.sql, those backing keys and constraints stay,
+     * and returns the statements that create them again.
+     */
+    private List<String> dropIndexes(String table) {
+        Map<String, List<String>> columns = jdbcTemplate.execute((ConnectionCallback<Map<String, List<String>>>) c -> {
+            DatabaseMetaData metaData = c.getMetaData();
+            String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+            Map<String, List<String>> found = new LinkedHashMap<>();
+            try (ResultSet info = metaData.getIndexInfo(c.getCatalog(), c.getSchema(), name, false, false)) {
+                while (info.next()) {
+                    String index = info.getString("INDEX_NAME");
+                    if (index == null || !index.toLowerCase(Locale.ROOT).startsWith("ix_")) continue;
+                    String column = info.getString("COLUMN_NAME");
+                    if ("D".equals(info.getString("ASC_OR_DESC"))) column += " desc";
+                    // rows come ordered by index name and column position
+                    found.computeIfAbsent(index, key -> new ArrayList<>()).add(column);
+                }
+            }
+            return found;
+        });
+        List<String> creates = new ArrayList<>();
+        columns.forEach((index, indexColumns) -> {
+            jdbcTemplate.execute("drop index " + index);
+            creates.add("create index " + index + " on " + table + " (" + String.join(", ", indexColumns) + ")");
+        });
+        return creates;
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        for (int i = 1; i < count; i++) {
+            text.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return text.toString();
+    }
+
+    private interface RowWriter {
+        void write(PreparedStatement statement, int id) throws SQLException;
+    }
+
+    /**
+     * What comments need to know of the generated bookings, indexed by booking id - 1.
+     */
+    private static class BookingRows {
+        private final int[] item;
+        private final int[] booker;
+        private final int[] endMinute;
+
+        BookingRows(int count) {
+            item = new int[count];
+            booker = new int[count];
+            endMinute = new int[count];
+        }
+    }
+}
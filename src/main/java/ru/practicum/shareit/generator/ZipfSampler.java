@@ -0,0 +1,33 @@
+package ru.practicum.shareit.generator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Draws ranks 1..n with probability proportional to 1 / rank^exponent, so rank 1 is the most frequent.
+ * An exponent of 0 gives the uniform distribution.
+ */
+class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int n, double exponent) {
+        if (n < 1) throw new IllegalArgumentException("n must be positive, got " + n);
+        if (exponent < 0) throw new IllegalArgumentException("exponent must not be negative, got " + exponent);
+        cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    int sample(Random random) {
+        int found = Arrays.binarySearch(cumulative, random.nextDouble());
+        int index = found >= 0 ? found : -found - 1;
+        return Math.min(index, cumulative.length - 1) + 1;
+    }
+}
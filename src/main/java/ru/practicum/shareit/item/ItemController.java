@@ -2,12 +2,20 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.search.SearchSort;
+import ru.practicum.shareit.user.SharerUser;
+import ru.practicum.shareit.user.model.User;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 @Validated
 @Slf4j
@@ -21,18 +29,18 @@ public class ItemController {
     @PostMapping
     public ItemDto addNewItem(
             @RequestBody ItemDto itemDto,
-            @RequestHeader("X-Sharer-User-Id") Long userId
+            @SharerUser User user
     ) {
-        log.info("Request to add new item {} by user id = {}", itemDto, userId);
-        return itemService.addNewItem(itemDto, userId);
+        log.info("Request to add new item {} by user id = {}", itemDto, user.getId());
+        return itemService.addNewItem(itemDto, user.getId());
     }
 
     @PatchMapping("/{itemId}")
     public ItemDto changeItem(@PathVariable Long itemId,
-                              @RequestHeader("X-Sharer-User-Id") Long userId,
+                              @SharerUser User user,
                               @RequestBody ItemDto itemDto) {
         log.info("Request to change item {}", itemDto);
-        return itemService.changeItem(itemId, userId, itemDto);
+        return itemService.changeItem(itemId, user.getId(), itemDto);
     }
 
     @GetMapping("/{itemId}")
@@ -44,6 +52,16 @@ public class ItemController {
         return itemService.getItemInfo(itemId, userId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public List<FreeSlotDto> getAvailability(
+            @PathVariable Long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
+    ) {
+        log.info("Request availability of item id = {} from {} to {}", itemId, from, to);
+        return itemService.getAvailability(itemId, from, to);
+    }
+
     @GetMapping
     public Collection<ItemDto> getAllItems(@RequestHeader("X-Sharer-User-Id") Long userId,
                                            @RequestParam(required = false) Integer from,
@@ -56,12 +74,25 @@ public class ItemController {
     public Collection<ItemDto> getItemsByKeyword(
             @RequestParam String text,
             @RequestParam(required = false, defaultValue = "0") Integer from,
-            @RequestParam(required = false, defaultValue = "2147483647") Integer size
+            @RequestParam(required = false, defaultValue = "2147483647") Integer size,
+            @RequestParam(required = false, defaultValue = "ID") String sort
     ) {
-        log.info("user finds item by keyword {}", text);
+        log.info("user finds item by keyword {}, sort {}", text, sort);
+        SearchSort searchSort = SearchSort.optionalValueOf(sort)
+                .orElseThrow(() -> new BadRequestException("Unknown sort: " + sort));
+        if (searchSort == SearchSort.RELEVANCE) return itemService.getItemsByRelevance(text, from, size);
         return itemService.getItemsByKeyword(text, from, size);
     }
 
+    @GetMapping("/suggest")
+    public List<String> suggestNames(
+            @RequestParam String prefix,
+            @RequestParam(required = false, defaultValue = "10") Integer size
+    ) {
+        log.info("user requests names starting with {}", prefix);
+        return itemService.suggestNames(prefix, size);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentDto postComment(
             @PathVariable Long itemId,
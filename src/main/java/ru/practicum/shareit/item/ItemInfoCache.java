@@ -0,0 +1,164 @@
+package ru.practicum.shareit.item;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserDeletedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of the parts GET /items/{itemId} is assembled from.
+ * The item with its comments is the same for every viewer, the last and next bookings are shown to the owner only
+ * and are kept apart, each entry until the moment one of the item's bookings starts or ends.
+ */
+@Component
+public class ItemInfoCache {
+
+    static final String ITEMS = "itemInfo";
+    static final String BOOKINGS = "itemBookings";
+
+    private final Cache<Long, ItemInfo> items;
+    private final Cache<Long, OwnerBookings> bookings;
+    private final AtomicLong writes = new AtomicLong();
+
+    public ItemInfoCache(
+            MeterRegistry meterRegistry,
+            @Value("${shareit.item.cache.max-size:10000}") long maxSize,
+            @Value("${shareit.item.cache.ttl:10m}") Duration ttl
+    ) {
+        items = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        bookings = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilBoundary(ttl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, items, ITEMS);
+        CaffeineCacheMetrics.monitor(meterRegistry, bookings, BOOKINGS);
+    }
+
+    public ItemInfo getInfo(Long itemId, Supplier<ItemInfo> loader) {
+        return get(items, itemId, loader);
+    }
+
+    public OwnerBookings getOwnerBookings(Long itemId, Supplier<OwnerBookings> loader) {
+        OwnerBookings cached = bookings.getIfPresent(itemId);
+        if (cached != null && cached.isValidAt(LocalDateTime.now())) return cached;
+        return get(bookings, itemId, loader);
+    }
+
+    /**
+     * For a change of the item itself or of its comments.
+     */
+    public void evictInfo(Long itemId) {
+        writes.incrementAndGet();
+        items.invalidate(itemId);
+    }
+
+    /**
+     * For a new booking of the item or a change of its status.
+     */
+    public void evictBookings(Long itemId) {
+        writes.incrementAndGet();
+        bookings.invalidate(itemId);
+    }
+
+    /**
+     * Items deleted with the user go entirely, the others lose the user's comments or bookings.
+     */
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        event.getDeletedItemIds().forEach(this::evictInfo);
+        event.getDeletedItemIds().forEach(this::evictBookings);
+        event.getCommentedItemIds().forEach(this::evictInfo);
+        event.getBookedItemIds().forEach(this::evictBookings);
+    }
+
+    public void invalidateAll() {
+        writes.incrementAndGet();
+        items.invalidateAll();
+        bookings.invalidateAll();
+    }
+
+    /**
+     * A value loaded while something changed may already be stale, so it is returned but not cached.
+     */
+    private <V> V get(Cache<Long, V> cache, Long itemId, Supplier<V> loader) {
+        V cached = cache.getIfPresent(itemId);
+        if (cached != null) return cached;
+
+        long writesBefore = writes.get();
+        V loaded = loader.get();
+        if (writes.get() == writesBefore) {
+            cache.put(itemId, loaded);
+            if (writes.get() != writesBefore) cache.invalidate(itemId);
+        }
+        return loaded;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ItemInfo {
+        /**
+         * Item fields and comments, without bookings.
+         */
+        private final ItemDto item;
+        private final Long ownerId;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class OwnerBookings {
+        private final ItemDto.ExtremumBookingDto lastBooking;
+        private final ItemDto.ExtremumBookingDto nextBooking;
+        /**
+         * The nearest start or end of a booking of the item, null when nothing is ahead.
+         */
+        private final LocalDateTime validUntil;
+
+        boolean isValidAt(LocalDateTime moment) {
+            return validUntil == null || moment.isBefore(validUntil);
+        }
+    }
+
+    private static class UntilBoundary implements Expiry<Long, OwnerBookings> {
+        private final long maxNanos;
+
+        UntilBoundary(Duration ttl) {
+            this.maxNanos = ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Long itemId, OwnerBookings value, long currentTime) {
+            if (value.getValidUntil() == null) return maxNanos;
+            Duration left = Duration.between(LocalDateTime.now(), value.getValidUntil());
+            if (left.isNegative()) return 0;
+            return left.compareTo(Duration.ofNanos(maxNanos)) > 0 ? maxNanos : left.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Long itemId, OwnerBookings value, long currentTime, long currentDuration) {
+            return expireAfterCreate(itemId, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long itemId, OwnerBookings value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package ru.practicum.shareit.item;
 
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 
+import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 
 public interface ItemService {
     ItemDto getItemInfo(Long itemId, Long userId);
@@ -16,5 +19,11 @@ public interface ItemService {
 
     Collection<ItemDto> getItemsByKeyword(String text, Integer from, Integer size);
 
+    Collection<ItemDto> getItemsByRelevance(String text, Integer from, Integer size);
+
+    List<String> suggestNames(String prefix, Integer size);
+
     CommentDto postComment(Long itemId, Long authorId, CommentDto commentDto);
+
+    List<FreeSlotDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
 }
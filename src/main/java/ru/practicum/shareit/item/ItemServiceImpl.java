@@ -4,52 +4,63 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.BookingInterval;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
 import ru.practicum.shareit.booking.BookingMapper;
 import ru.practicum.shareit.booking.BookingRepository;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.ExtremumBookingView;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.ForbiddenException;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.comment.CommentMapper;
 import ru.practicum.shareit.item.comment.CommentRepository;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.dto.CommentView;
 import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.SearchSort;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.paging.OffsetLimitPageable;
+import ru.practicum.shareit.requests.ItemRequestSubscribers;
 import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.search.ItemRequestIndex;
 import ru.practicum.shareit.requests.storage.ItemRequestRepository;
-import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemInfoCache itemInfoCache;
+    private final ItemRequestIndex itemRequestIndex;
+    private final ItemRequestSubscribers itemRequestSubscribers;
 
     @Override
     public ItemDto getItemInfo(Long itemId, Long userId) {
-        Item item = itemRepository.findById(itemId).orElseThrow(() -> new NotFoundException("item not found"));
-        return ItemMapper.toItemDto(
-                item,
-                getComments(itemId),
-                getLastBooking(item, userId),
-                getNextBooking(item, userId)
-        );
+        ItemInfoCache.ItemInfo info = itemInfoCache.getInfo(itemId, () -> loadItemInfo(getItem(itemId)));
+        return withBookings(info, userId);
     }
 
     @Override
     public ItemDto addNewItem(ItemDto itemDto, Long userId) {
-        Optional<User> user = userRepository.findById(userId);
+        Optional<User> user = userCache.findById(userId);
         if (user.isEmpty()) throw new NotFoundException("User not found");
         if (itemDto.getName() == null || itemDto.getDescription() == null || itemDto.getAvailable() == null)
             throw new BadRequestException("Attempt add item with absent fields");
@@ -57,11 +68,15 @@ public class ItemServiceImpl implements ItemService {
             throw new BadRequestException("Attempt add item with absent fields");
         Long requestId = itemDto.getRequestId();
         ItemRequest itemRequest = requestId != null ? itemRequestRepository.findById(requestId).orElse(null) : null;
-        Item item = itemRepository.save(ItemMapper.toItem(itemDto, user.get(), itemRequest));
-        return ItemMapper.toItemDto(item,
-                getComments(item.getId()),
-                getLastBooking(item, userId),
-                getNextBooking(item, userId));
+        Item saved = itemRepository.save(ItemMapper.toItem(itemDto, user.get(), itemRequest));
+        itemSearchIndex.index(saved);
+        itemSearchCache.itemChanged(saved);
+        itemRequestIndex.match(saved);
+        if (itemRequest != null && itemRequest.getRequestor() != null) {
+            itemRequestSubscribers.publish(itemRequest.getRequestor().getId(),
+                    ItemMapper.toItemDto(saved, null, null, null));
+        }
+        return withBookings(itemInfoCache.getInfo(saved.getId(), () -> loadItemInfo(saved)), userId);
     }
 
     @Override
@@ -74,6 +89,8 @@ public class ItemServiceImpl implements ItemService {
         if (!user.equals(itemRepository.getItemOwner(itemId)))
             throw new ForbiddenException("Attempt update item not by owner");
 
+        String oldName = item.getName();
+        String oldDescription = item.getDescription();
         if (itemDto.getName() != null) {
             item.setName(itemDto.getName());
         }
@@ -84,34 +101,37 @@ public class ItemServiceImpl implements ItemService {
             item.setAvailable(itemDto.getAvailable());
         }
 
-        return ItemMapper.toItemDto(itemRepository.save(item),
-                getComments(item.getId()),
-                getLastBooking(item, item.getOwner().getId()),
-                getNextBooking(item, item.getOwner().getId()));
+        Item saved = itemRepository.save(item);
+        itemSearchIndex.index(saved);
+        itemSearchCache.itemChanged(saved, oldName, oldDescription);
+        itemInfoCache.evictInfo(itemId);
+        if (itemDto.getName() != null) itemRequestIndex.match(saved);
+        return withBookings(itemInfoCache.getInfo(itemId, () -> loadItemInfo(saved)), userId);
     }
 
     @Override
     public Collection<ItemDto> getItemsByUserId(Long userId, Integer from, Integer size) {
         Pageable pageable = OffsetLimitPageable.create(from, size, Sort.by(Sort.Direction.ASC, "id"));
         User user = getUser(userId);
-        return itemRepository.findByOwner(user, pageable).stream()
-                .map(item -> ItemMapper.toItemDto(item,
-                        getComments(item.getId()),
-                        getLastBooking(item, item.getOwner().getId()),
-                        getNextBooking(item, item.getOwner().getId())))
-                .collect(Collectors.toList());
+        return toItemDtos(itemRepository.findByOwner(user, pageable));
     }
 
     @Override
     public Collection<ItemDto> getItemsByKeyword(String text, Integer from, Integer size) {
-        Pageable pageable = OffsetLimitPageable.create(from, size, Sort.by(Sort.Direction.ASC, "id"));
-        if (text.isBlank()) return new ArrayList<>();
-        return itemRepository.search(text.toLowerCase(), pageable).stream()
-                .map(item -> ItemMapper.toItemDto(item,
-                        getComments(item.getId()),
-                        getLastBooking(item, item.getOwner().getId()),
-                        getNextBooking(item, item.getOwner().getId())))
-                .collect(Collectors.toList());
+        return itemSearchCache.get(text, from, size, SearchSort.ID, () -> findItemsByKeyword(text, from, size));
+    }
+
+    @Override
+    public Collection<ItemDto> getItemsByRelevance(String text, Integer from, Integer size) {
+        return itemSearchCache.get(text, from, size, SearchSort.RELEVANCE,
+                () -> findItemsByRelevance(text, from, size));
+    }
+
+    @Override
+    public List<String> suggestNames(String prefix, Integer size) {
+        if (size <= 0) throw new BadRequestException("size must be positive");
+        if (prefix.isBlank()) return new ArrayList<>();
+        return itemSearchIndex.suggest(prefix, size);
     }
 
     @Override
@@ -127,11 +147,67 @@ public class ItemServiceImpl implements ItemService {
         commentDto.setCreated(LocalDateTime.now());
         Comment comment = CommentMapper.toComment(commentDto, author, item);
         commentRepository.save(comment);
+        itemSearchCache.itemTouched(itemId);
+        itemInfoCache.evictInfo(itemId);
         return CommentMapper.toCommentDto(comment);
     }
 
+    /**
+     * Free windows are the gaps between the item's WAITING and APPROVED bookings,
+     * taken from the in-memory booking index rather than from the bookings table.
+     */
+    @Override
+    public List<FreeSlotDto> getAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) throw new BadRequestException("range end must be after its start");
+        Item item = getItem(itemId);
+        List<FreeSlotDto> slots = new ArrayList<>();
+        if (!item.getAvailable()) return slots;
+
+        LocalDateTime freeFrom = from;
+        for (BookingInterval booking : bookingIntervalIndex.findOverlapping(itemId, from, to)) {
+            if (booking.getStart().isAfter(freeFrom)) {
+                slots.add(new FreeSlotDto(freeFrom, booking.getStart()));
+            }
+            if (booking.getEnd().isAfter(freeFrom)) {
+                freeFrom = booking.getEnd();
+            }
+        }
+        if (to.isAfter(freeFrom)) {
+            slots.add(new FreeSlotDto(freeFrom, to));
+        }
+        return slots;
+    }
+
+    private List<ItemDto> findItemsByKeyword(String text, Integer from, Integer size) {
+        Pageable pageable = OffsetLimitPageable.create(from, size, Sort.by(Sort.Direction.ASC, "id"));
+        if (text.isBlank()) return new ArrayList<>();
+        if (!ItemSearchIndex.supports(text)) {
+            return toItemDtos(itemRepository.search(text.toLowerCase(), pageable));
+        }
+        List<Long> ids = itemSearchIndex.search(text, pageable.getOffset(), pageable.getPageSize());
+        if (ids.isEmpty()) return new ArrayList<>();
+        return toItemDtos(itemRepository.findByIdInOrderById(ids));
+    }
+
+    /**
+     * Wildcard queries are not ranked, they come in id order from the database as without sorting.
+     */
+    private List<ItemDto> findItemsByRelevance(String text, Integer from, Integer size) {
+        if (!ItemSearchIndex.supports(text)) return findItemsByKeyword(text, from, size);
+        Pageable pageable = OffsetLimitPageable.create(from, size);
+        if (text.isBlank()) return new ArrayList<>();
+        List<Long> ids = itemSearchIndex.searchByRelevance(text, pageable.getOffset(), pageable.getPageSize());
+        if (ids.isEmpty()) return new ArrayList<>();
+        Map<Long, Item> items = itemRepository.findByIdInOrderById(ids).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return toItemDtos(ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+    }
+
     private User getUser(Long userId) {
-        return userRepository.findById(userId)
+        return userCache.findById(userId)
                 .orElseThrow(() -> new NotFoundException("user not found"));
     }
 
@@ -146,27 +222,77 @@ public class ItemServiceImpl implements ItemService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Assembles a page of items for their owner with two extra queries in total,
+     * one for all the comments and one for the last and next bookings of every item.
+     */
+    private List<ItemDto> toItemDtos(List<Item> items) {
+        if (items.isEmpty()) return new ArrayList<>();
+        List<Long> itemIds = items.stream().map(Item::getId).collect(Collectors.toList());
+
+        Map<Long, List<CommentDto>> comments = commentRepository.findByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(CommentView::getItemId,
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+
+        Map<Long, ItemDto.ExtremumBookingDto> lastBookings = new HashMap<>();
+        Map<Long, ItemDto.ExtremumBookingDto> nextBookings = new HashMap<>();
+        for (ExtremumBookingView booking : bookingRepository.findLastAndNextByItemIdIn(itemIds, LocalDateTime.now())) {
+            Map<Long, ItemDto.ExtremumBookingDto> target = booking.getIsLast() ? lastBookings : nextBookings;
+            target.put(booking.getItemId(), BookingMapper.toExtremumBookingDto(booking));
+        }
+
+        return items.stream()
+                .map(item -> ItemMapper.toItemDto(item,
+                        comments.getOrDefault(item.getId(), new ArrayList<>()),
+                        lastBookings.get(item.getId()),
+                        nextBookings.get(item.getId())))
+                .collect(Collectors.toList());
+    }
+
     private boolean wasItemBookedByUser(Item item, User user) {
         return bookingRepository.findByBookerAndItem(user, item)
                 .stream()
                 .anyMatch((booking) -> booking.getEnd().isBefore(LocalDateTime.now()));
     }
 
-    private ItemDto.ExtremumBookingDto getLastBooking(Item item, Long userId) {
-        if (!item.getOwner().getId().equals(userId)) return null;
-        List<Booking> bookings = bookingRepository.findByItemAndEndIsBefore(item, LocalDateTime.now());
-        if (bookings.isEmpty()) {
-            return null;
-        }
-        return BookingMapper.toExtremumBookingDto(bookings.get(bookings.size() - 1));
+    private ItemInfoCache.ItemInfo loadItemInfo(Item item) {
+        return new ItemInfoCache.ItemInfo(
+                ItemMapper.toItemDto(item, getComments(item.getId()), null, null),
+                item.getOwner().getId()
+        );
+    }
+
+    /**
+     * Copies the cached item with its comments and adds the last and next bookings when it is the owner who asks.
+     */
+    private ItemDto withBookings(ItemInfoCache.ItemInfo info, Long userId) {
+        ItemDto cached = info.getItem();
+        List<CommentDto> comments = cached.getComments().stream()
+                .map(comment -> new CommentDto(comment.getId(), comment.getText(), comment.getAuthorName(),
+                        comment.getCreated()))
+                .collect(Collectors.toList());
+        ItemDto result = new ItemDto(cached.getId(), cached.getName(), cached.getDescription(),
+                cached.getAvailable(), comments, null, null, cached.getRequestId());
+        if (!info.getOwnerId().equals(userId)) return result;
+
+        ItemInfoCache.OwnerBookings bookings = itemInfoCache.getOwnerBookings(
+                cached.getId(), () -> loadOwnerBookings(cached.getId()));
+        result.setLastBooking(bookings.getLastBooking());
+        result.setNextBooking(bookings.getNextBooking());
+        return result;
     }
 
-    private ItemDto.ExtremumBookingDto getNextBooking(Item item, Long userId) {
-        if (!item.getOwner().getId().equals(userId)) return null;
-        List<Booking> bookings = bookingRepository.findByItemAndStartIsAfter(item, LocalDateTime.now());
-        if (bookings.isEmpty()) {
-            return null;
+    private ItemInfoCache.OwnerBookings loadOwnerBookings(Long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        ItemDto.ExtremumBookingDto last = null;
+        ItemDto.ExtremumBookingDto next = null;
+        for (ExtremumBookingView booking : bookingRepository.findLastAndNextByItemIdIn(List.of(itemId), now)) {
+            if (booking.getIsLast()) {
+                last = BookingMapper.toExtremumBookingDto(booking);
+            } else {
+                next = BookingMapper.toExtremumBookingDto(booking);
+            }
         }
-        return BookingMapper.toExtremumBookingDto(bookings.get(0));
+        return new ItemInfoCache.OwnerBookings(last, next, bookingRepository.findNextBoundary(itemId, now));
     }
 }
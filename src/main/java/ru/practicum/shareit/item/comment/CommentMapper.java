@@ -1,6 +1,7 @@
 package ru.practicum.shareit.item.comment;
 
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.dto.CommentView;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -16,6 +17,15 @@ public class CommentMapper {
         );
     }
 
+    public static CommentDto toCommentDto(CommentView comment) {
+        return new CommentDto(
+                comment.getId(),
+                comment.getText(),
+                comment.getAuthorName(),
+                comment.getCreated()
+        );
+    }
+
     public static Comment toComment(CommentDto commentDto, User author, Item item) {
         return new Comment(commentDto.getId(), commentDto.getText(), item, author, commentDto.getCreated());
     }
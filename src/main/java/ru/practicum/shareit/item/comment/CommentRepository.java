@@ -1,13 +1,27 @@
 package ru.practicum.shareit.item.comment;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.comment.dto.CommentView;
 import ru.practicum.shareit.item.comment.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
 
+    // a derived query would join items and filter on items.id, which leaves comments without an index
+    @EntityGraph(Comment.WITH_AUTHOR)
+    @Query("select c from Comment c where c.item.id = ?1")
     List<Comment> findByItemId(Long itemId);
+
+    @Query("select c.id as id, c.item.id as itemId, c.text as text, a.name as authorName, c.created as created " +
+            "from Comment c join c.author a where c.item.id in :itemIds order by c.id")
+    List<CommentView> findByItemIdIn(Collection<Long> itemIds);
+
+    @Query("select distinct c.item.id from Comment c where c.author.id = ?1")
+    List<Long> findItemIdsByAuthorId(Long authorId);
 }
@@ -0,0 +1,226 @@
+package ru.practicum.shareit.item.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserDeletedEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Cache of item search results, bounded by the number of items and comments it holds.
+ * Entries that show an item are dropped when the item, its comments or its bookings change,
+ * entries whose query a changed item matches before or after the change are dropped as well.
+ * To find those without going through every entry, queries are kept by one of their trigrams:
+ * a text containing the query contains each of its trigrams. Shorter queries are few and are checked all.
+ * Last and next bookings also move with the clock, so entries live a short time anyway.
+ */
+@Component
+public class ItemSearchCache {
+
+    static final String NAME = "itemSearch";
+
+    private final Cache<Key, List<ItemDto>> cache;
+    private final Map<Long, Set<Key>> keysByItem = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Key>> keysByGram = new ConcurrentHashMap<>();
+    private final Set<Key> keysWithoutGram = ConcurrentHashMap.newKeySet();
+    private final AtomicLong writes = new AtomicLong();
+
+    public ItemSearchCache(
+            MeterRegistry meterRegistry,
+            @Value("${shareit.search.cache.max-weight:20000}") long maxWeight,
+            @Value("${shareit.search.cache.ttl:30s}") Duration ttl
+    ) {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher(ItemSearchCache::weigh)
+                .expireAfterWrite(ttl)
+                .executor(Runnable::run)
+                .removalListener(this::forget)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    /**
+     * Returns the cached result or loads it.
+     * A result loaded while some item changed may already be stale, so it is returned but not cached.
+     */
+    public List<ItemDto> get(String text, Integer from, Integer size, SearchSort sort, Supplier<List<ItemDto>> loader) {
+        Key key = new Key(ItemSearchIndex.normalize(text.toLowerCase()), from, size, sort);
+        List<ItemDto> cached = cache.getIfPresent(key);
+        if (cached != null) return cached;
+
+        long writesBefore = writes.get();
+        List<ItemDto> loaded = Collections.unmodifiableList(loader.get());
+        if (writes.get() == writesBefore) {
+            // tracked together with the put, an entry evicted right away is forgotten by the removal listener
+            cache.asMap().compute(key, (k, previous) -> {
+                track(k, loaded);
+                return loaded;
+            });
+            // a change that slipped in between the check and the put may have missed the new entry
+            if (writes.get() != writesBefore) cache.invalidate(key);
+        }
+        return loaded;
+    }
+
+    /**
+     * For a new item: drops results it may join.
+     */
+    public void itemChanged(Item item) {
+        itemChanged(item, null, null);
+    }
+
+    /**
+     * For a changed item: drops results that show it, results it may join now
+     * and results it left, which moves the items of the pages after it.
+     */
+    public void itemChanged(Item item, String oldName, String oldDescription) {
+        writes.incrementAndGet();
+        itemTouched(item.getId());
+        String[] texts = {
+                ItemSearchIndex.normalize(item.getName()),
+                ItemSearchIndex.normalize(item.getDescription()),
+                ItemSearchIndex.normalize(oldName),
+                ItemSearchIndex.normalize(oldDescription)
+        };
+        List<Key> stale = new ArrayList<>();
+        for (Key key : keysWithoutGram) {
+            if (!ItemSearchIndex.supports(key.text) || matches(key.text, texts)) stale.add(key);
+        }
+        for (long gram : ItemSearchIndex.grams(texts)) {
+            Set<Key> keys = keysByGram.get(gram);
+            if (keys == null) continue;
+            for (Key key : keys) {
+                if (matches(key.text, texts)) stale.add(key);
+            }
+        }
+        cache.invalidateAll(stale);
+    }
+
+    /**
+     * For a change of the comments or bookings of an item: drops results that show it.
+     */
+    public void itemTouched(Long itemId) {
+        writes.incrementAndGet();
+        Set<Key> keys = keysByItem.remove(itemId);
+        if (keys != null) cache.invalidateAll(keys);
+    }
+
+    /**
+     * Drops results that show an item deleted with the user or one that lost the user's bookings or comments.
+     */
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        event.getDeletedItemIds().forEach(this::itemTouched);
+        event.getBookedItemIds().forEach(this::itemTouched);
+        event.getCommentedItemIds().forEach(this::itemTouched);
+    }
+
+    public void invalidateAll() {
+        writes.incrementAndGet();
+        cache.invalidateAll();
+        keysByItem.clear();
+        keysByGram.clear();
+        keysWithoutGram.clear();
+    }
+
+    long size() {
+        return cache.estimatedSize();
+    }
+
+    /**
+     * Number of distinct keys the reverse indexes know of, the same as the size once the cache is cleaned up.
+     */
+    long trackedKeys() {
+        Set<Key> keys = new HashSet<>(keysWithoutGram);
+        keysByGram.values().forEach(keys::addAll);
+        keysByItem.values().forEach(keys::addAll);
+        return keys.size();
+    }
+
+    void cleanUp() {
+        cache.cleanUp();
+    }
+
+    private void track(Key key, List<ItemDto> items) {
+        for (ItemDto item : items) {
+            keysByItem.computeIfAbsent(item.getId(), id -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        Long gram = gram(key);
+        if (gram == null) {
+            keysWithoutGram.add(key);
+        } else {
+            keysByGram.computeIfAbsent(gram, id -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private void forget(Key key, List<ItemDto> items, RemovalCause cause) {
+        if (key == null || items == null || cause == RemovalCause.REPLACED) return;
+        Long gram = gram(key);
+        if (gram == null) {
+            keysWithoutGram.remove(key);
+        } else {
+            keysByGram.computeIfPresent(gram, (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+        for (ItemDto item : items) {
+            keysByItem.computeIfPresent(item.getId(), (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    /**
+     * The first trigram of the query, null for queries without one or with wildcards.
+     */
+    private static Long gram(Key key) {
+        if (!ItemSearchIndex.supports(key.text)) return null;
+        long[] grams = ItemSearchIndex.grams(key.text);
+        return grams.length == 0 ? null : grams[0];
+    }
+
+    private static boolean matches(String query, String[] texts) {
+        for (String text : texts) {
+            if (text.contains(query)) return true;
+        }
+        return false;
+    }
+
+    private static int weigh(Key key, List<ItemDto> items) {
+        int weight = 1;
+        for (ItemDto item : items) {
+            weight += 1 + (item.getComments() == null ? 0 : item.getComments().size());
+        }
+        return weight;
+    }
+
+    @Data
+    private static class Key {
+        private final String text;
+        private final Integer from;
+        private final Integer size;
+        private final SearchSort sort;
+    }
+}
@@ -0,0 +1,311 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemSearchView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.UserDeletedEvent;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over the names and descriptions of available items.
+ * Postings of the query trigrams give the candidates, and every candidate is checked for the query as a substring,
+ * so the result is the same as of {@link ItemRepository#search}, only without scanning the items table.
+ * Queries with LIKE wildcards are not supported, see {@link #supports}.
+ * Names of the same items are also kept in a trie for type-ahead suggestions.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+
+    static final int GRAM = 3;
+    static final int NAME_WEIGHT = 10;
+
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<Long, Document> documents = new TreeMap<>();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private NameTrie names = new NameTrie();
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            names = new NameTrie();
+            for (ItemSearchView item : itemRepository.findAllForSearch()) {
+                put(item.getId(), item.getName(), item.getDescription(), item.getAvailable());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Item item) {
+        lock.writeLock().lock();
+        try {
+            put(item.getId(), item.getName(), item.getDescription(), item.getAvailable());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Collection<Long> itemIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : itemIds) {
+                put(id, null, null, false);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The items of a deleted user and those answering its requests are gone by cascade.
+     */
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        remove(event.getDeletedItemIds());
+    }
+
+    /**
+     * The text is handed to LIKE as is, so '%' and '_' work there as wildcards and must be searched in the database.
+     */
+    public static boolean supports(String text) {
+        return text.indexOf('%') < 0 && text.indexOf('_') < 0 && text.indexOf('\\') < 0;
+    }
+
+    /**
+     * Returns ids of the matching available items in ascending order, [from, from + size).
+     */
+    public List<Long> search(String text, long from, int size) {
+        List<Long> page = new ArrayList<>();
+        long[] skipped = {0};
+        forEachMatch(text, (id, document, query) -> {
+            if (skipped[0]++ >= from) page.add(id);
+            return page.size() < size;
+        });
+        return page;
+    }
+
+    /**
+     * Returns ids of the matching available items from the most relevant, [from, from + size).
+     * Only the best from + size matches are kept while walking the postings, in a min-heap.
+     */
+    public List<Long> searchByRelevance(String text, long from, int size) {
+        long limit = from + size;
+        PriorityQueue<ScoredId> best = new PriorityQueue<>((int) Math.min(limit, 64), ScoredId.WORST_FIRST);
+        forEachMatch(text, (id, document, query) -> {
+            ScoredId scored = new ScoredId(id, document.score(query));
+            if (best.size() < limit) {
+                best.add(scored);
+            } else if (ScoredId.WORST_FIRST.compare(scored, best.peek()) > 0) {
+                best.poll();
+                best.add(scored);
+            }
+            return true;
+        });
+
+        List<Long> page = new ArrayList<>();
+        while (best.size() > from) {
+            page.add(best.poll().id);
+        }
+        Collections.reverse(page);
+        return page;
+    }
+
+    /**
+     * Returns names of available items starting with the prefix, the most common first.
+     */
+    public List<String> suggest(String prefix, int size) {
+        String key = normalize(prefix.toLowerCase());
+        lock.readLock().lock();
+        try {
+            return names.top(key, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void forEachMatch(String text, MatchVisitor visitor) {
+        // the repository got the text lowercased and compared it with upper(), keep the same folding
+        String query = normalize(text.toLowerCase());
+        lock.readLock().lock();
+        try {
+            if (query.length() < GRAM) {
+                scan(query, visitor);
+            } else {
+                intersect(query, visitor);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void scan(String query, MatchVisitor visitor) {
+        for (Map.Entry<Long, Document> entry : documents.entrySet()) {
+            Document document = entry.getValue();
+            if (document.contains(query) && !visitor.visit(entry.getKey(), document, query)) return;
+        }
+    }
+
+    private void intersect(String query, MatchVisitor visitor) {
+        List<PostingList> lists = new ArrayList<>();
+        for (long gram : grams(query)) {
+            PostingList list = postings.get(gram);
+            if (list == null) return;
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+
+        PostingList smallest = lists.get(0);
+        for (int i = 0; i < smallest.size(); i++) {
+            long id = smallest.get(i);
+            if (!containsInAll(lists, id)) continue;
+            Document document = documents.get(id);
+            if (document.contains(query) && !visitor.visit(id, document, query)) return;
+        }
+    }
+
+    private boolean containsInAll(List<PostingList> lists, long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) return false;
+        }
+        return true;
+    }
+
+    private void put(Long id, String name, String description, Boolean available) {
+        Document previous = documents.remove(id);
+        if (previous != null) {
+            names.remove(previous.name);
+            for (long gram : previous.grams()) {
+                PostingList list = postings.get(gram);
+                list.remove(id);
+                if (list.isEmpty()) postings.remove(gram);
+            }
+        }
+        if (!Boolean.TRUE.equals(available)) return;
+
+        Document document = new Document(normalize(name), normalize(description));
+        documents.put(id, document);
+        names.add(document.name, name);
+        for (long gram : document.grams()) {
+            postings.computeIfAbsent(gram, key -> new PostingList()).add(id);
+        }
+    }
+
+    /**
+     * Same folding as upper() of H2, which uses the default locale.
+     */
+    static String normalize(String text) {
+        return text == null ? "" : text.toUpperCase();
+    }
+
+    /**
+     * Returns distinct trigrams of the texts in ascending order, every three consecutive chars packed into one long.
+     */
+    static long[] grams(String... normalized) {
+        int count = 0;
+        for (String text : normalized) {
+            count += Math.max(0, text.length() - GRAM + 1);
+        }
+        long[] grams = new long[count];
+        int size = 0;
+        for (String text : normalized) {
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                grams[size++] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+            }
+        }
+        Arrays.sort(grams);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || grams[distinct - 1] != grams[i]) grams[distinct++] = grams[i];
+        }
+        return Arrays.copyOf(grams, distinct);
+    }
+
+    private static class Document {
+        private final String name;
+        private final String description;
+
+        Document(String name, String description) {
+            this.name = name;
+            this.description = description;
+        }
+
+        boolean contains(String query) {
+            return name.contains(query) || description.contains(query);
+        }
+
+        /**
+         * A hit in the name outweighs any reasonable number of hits in the description.
+         */
+        long score(String query) {
+            return NAME_WEIGHT * occurrences(name, query) + occurrences(description, query);
+        }
+
+        private static int occurrences(String text, String query) {
+            int count = 0;
+            for (int i = text.indexOf(query); i >= 0; i = text.indexOf(query, i + query.length())) {
+                count++;
+            }
+            return count;
+        }
+
+        long[] grams() {
+            return ItemSearchIndex.grams(name, description);
+        }
+    }
+
+    @FunctionalInterface
+    private interface MatchVisitor {
+        /**
+         * Returns false to stop the walk.
+         */
+        boolean visit(long id, Document document, String query);
+    }
+
+    private static class ScoredId {
+        /**
+         * Lower score first, on equal scores the later item goes first, so earlier ones are kept.
+         */
+        static final Comparator<ScoredId> WORST_FIRST = Comparator
+                .comparingLong((ScoredId scored) -> scored.score)
+                .thenComparing((ScoredId scored) -> scored.id, Comparator.reverseOrder());
+
+        private final long id;
+        private final long score;
+
+        ScoredId(long id, long score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
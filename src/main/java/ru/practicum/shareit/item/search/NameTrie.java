@@ -0,0 +1,158 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Trie over normalized item names counting the items with every name.
+ * Children are kept in sorted char arrays, and every node knows the largest count below it,
+ * so the most common names under a prefix are found best-first without visiting the whole subtree.
+ */
+class NameTrie {
+
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node();
+
+    public void add(String key, String display) {
+        add(root, key, 0, display);
+    }
+
+    public void remove(String key) {
+        remove(root, key, 0);
+    }
+
+    /**
+     * Returns display names of at most limit keys starting with the prefix, by count descending, then by key.
+     */
+    public List<String> top(String prefix, int limit) {
+        List<String> result = new ArrayList<>();
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i));
+        }
+        if (node == null || node.best == 0) return result;
+
+        PriorityQueue<Candidate> queue = new PriorityQueue<>(Candidate.ORDER);
+        queue.add(new Candidate(node, prefix, node.best, false));
+        while (!queue.isEmpty() && result.size() < limit) {
+            Candidate candidate = queue.poll();
+            if (candidate.terminal) {
+                result.add(candidate.node.display);
+                continue;
+            }
+            Node current = candidate.node;
+            if (current.count > 0) queue.add(new Candidate(current, candidate.key, current.count, true));
+            for (int i = 0; i < current.labels.length; i++) {
+                Node child = current.children[i];
+                queue.add(new Candidate(child, candidate.key + current.labels[i], child.best, false));
+            }
+        }
+        return result;
+    }
+
+    private void add(Node node, String key, int depth, String display) {
+        if (depth == key.length()) {
+            node.count++;
+            node.display = display;
+        } else {
+            add(node.childOrCreate(key.charAt(depth)), key, depth + 1, display);
+        }
+        node.update();
+    }
+
+    private void remove(Node node, String key, int depth) {
+        if (depth == key.length()) {
+            if (node.count > 0) node.count--;
+        } else {
+            char label = key.charAt(depth);
+            Node child = node.child(label);
+            if (child == null) return;
+            remove(child, key, depth + 1);
+            if (child.best == 0) node.removeChild(label);
+        }
+        node.update();
+    }
+
+    private static class Node {
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private int count;
+        private int best;
+        private String display;
+
+        Node child(char label) {
+            int position = Arrays.binarySearch(labels, label);
+            return position >= 0 ? children[position] : null;
+        }
+
+        Node childOrCreate(char label) {
+            int position = Arrays.binarySearch(labels, label);
+            if (position >= 0) return children[position];
+            position = -position - 1;
+            Node child = new Node();
+            labels = insert(labels, position, label);
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, position);
+            grown[position] = child;
+            System.arraycopy(children, position, grown, position + 1, children.length - position);
+            children = grown;
+            return child;
+        }
+
+        void removeChild(char label) {
+            int position = Arrays.binarySearch(labels, label);
+            if (position < 0) return;
+            char[] shrunkLabels = new char[labels.length - 1];
+            Node[] shrunkChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, shrunkLabels, 0, position);
+            System.arraycopy(labels, position + 1, shrunkLabels, position, labels.length - position - 1);
+            System.arraycopy(children, 0, shrunkChildren, 0, position);
+            System.arraycopy(children, position + 1, shrunkChildren, position, children.length - position - 1);
+            labels = shrunkLabels;
+            children = shrunkChildren;
+        }
+
+        void update() {
+            best = count;
+            for (Node child : children) {
+                if (child.best > best) best = child.best;
+            }
+        }
+
+        private static char[] insert(char[] labels, int position, char label) {
+            char[] grown = new char[labels.length + 1];
+            System.arraycopy(labels, 0, grown, 0, position);
+            grown[position] = label;
+            System.arraycopy(labels, position, grown, position + 1, labels.length - position);
+            return grown;
+        }
+    }
+
+    private static class Candidate {
+        /**
+         * A subtree never holds a key smaller than its own prefix, nor a count above its best,
+         * so popping in this order yields the keys in the order of the result.
+         */
+        static final Comparator<Candidate> ORDER = Comparator
+                .comparingInt((Candidate candidate) -> -candidate.score)
+                .thenComparing(candidate -> candidate.key)
+                .thenComparing(candidate -> !candidate.terminal);
+
+        private final Node node;
+        private final String key;
+        private final int score;
+        private final boolean terminal;
+
+        Candidate(Node node, String key, int score, boolean terminal) {
+            this.node = node;
+            this.key = key;
+            this.score = score;
+            this.terminal = terminal;
+        }
+    }
+}
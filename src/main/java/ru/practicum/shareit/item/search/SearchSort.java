@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Optional;
+
+public enum SearchSort {
+    ID, RELEVANCE;
+
+    public static Optional<SearchSort> optionalValueOf(String string) {
+        for (SearchSort sort : SearchSort.values()) {
+            if (sort.name().equalsIgnoreCase(string)) {
+                return Optional.of(sort);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -3,11 +3,16 @@ package ru.practicum.shareit.item.storage;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.item.dto.ItemNameView;
+import ru.practicum.shareit.item.dto.ItemSearchView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,10 +22,29 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
             "   or upper(i.description) like upper(concat('%', ?1, '%'))) and i.available = true")
     List<Item> search(@Param("text") String text, Pageable pageable);
 
+    @Query("select new ru.practicum.shareit.item.dto.ItemSearchView(i.id, i.name, i.description, i.available) " +
+            "from Item i")
+    List<ItemSearchView> findAllForSearch();
+
+    @Query("select new ru.practicum.shareit.item.dto.ItemNameView(i.id, i.name, i.owner.id) " +
+            "from Item i where i.request is null")
+    List<ItemNameView> findAllWithoutRequest();
+
+    @Query("select i from Item i where i.id in ?1 order by i.id")
+    List<Item> findByIdInOrderById(Collection<Long> ids);
+
     @Query("select i.owner from Item i where i.id = ?1")
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"))
     User getItemOwner(Long itemId);
 
     List<Item> findByOwner(User owner, Pageable pageable);
 
-    List<Item> findByRequestId(Long requsetId);
+    @Query("select i from Item i where i.request.id in ?1 order by i.id")
+    List<Item> findByRequestIdIn(Collection<Long> requestIds);
+
+    @Query("select i.id from Item i where i.owner.id = ?1")
+    List<Long> findIdsByOwnerId(Long ownerId);
+
+    @Query("select i.id from Item i join i.request r where r.requestor.id = ?1")
+    List<Long> findIdsByRequestorId(Long requestorId);
 }
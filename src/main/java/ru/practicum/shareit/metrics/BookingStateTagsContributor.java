@@ -0,0 +1,31 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTagsContributor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.BookingState;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Adds the requested booking state to http.server.requests, the booking listings run a different query per state.
+ * Requests without one are tagged "none", unknown values "INVALID", to keep the number of series bounded.
+ */
+@Component
+public class BookingStateTagsContributor implements WebMvcTagsContributor {
+
+    @Override
+    public Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                 Throwable exception) {
+        String state = request.getParameter("state");
+        if (state == null) return Tags.of("state", RepositoryTimingInterceptor.NONE);
+        return Tags.of("state", BookingState.optionalValueOf(state).map(Enum::name).orElse("INVALID"));
+    }
+
+    @Override
+    public Iterable<Tag> getLongRequestTags(HttpServletRequest request, Object handler) {
+        return Tags.empty();
+    }
+}
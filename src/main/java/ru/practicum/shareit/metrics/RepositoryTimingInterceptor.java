@@ -0,0 +1,91 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the calls of one repository, tagged with the method, the booking state or status it was called with
+ * and the outcome. The timer sits inside the repository's transaction and exception translation.
+ * Timers are kept by method, state and exception, so a call only looks its timer up.
+ */
+class RepositoryTimingInterceptor implements MethodInterceptor {
+
+    static final String METRIC = "shareit.repository.invocations";
+    static final String NONE = "none";
+
+    private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final String repository;
+    private final Map<List<Object>, Timer> timers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    RepositoryTimingInterceptor(ObjectProvider<MeterRegistry> meterRegistryProvider, Class<?> repositoryInterface) {
+        this.meterRegistryProvider = meterRegistryProvider;
+        this.repository = repositoryInterface.getSimpleName();
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (method.getDeclaringClass() == Object.class) return invocation.proceed();
+
+        long started = System.nanoTime();
+        String exception = NONE;
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            timer(method, state(invocation.getArguments()), exception)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(Method method, String state, String exception) {
+        return timers.computeIfAbsent(List.of(method, state, exception), key -> Timer.builder(METRIC)
+                .tag("repository", repository)
+                .tag("method", method.getName())
+                .tag("state", state)
+                .tag("outcome", NONE.equals(exception) ? "SUCCESS" : "ERROR")
+                .tag("exception", exception)
+                .register(meterRegistry()));
+    }
+
+    /**
+     * The registry is created after the repositories, so it is looked up on the first call.
+     * A timer removed from the registry is forgotten, the next call registers it again.
+     */
+    private MeterRegistry meterRegistry() {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            synchronized (this) {
+                registry = meterRegistry;
+                if (registry == null) {
+                    registry = meterRegistryProvider.getObject();
+                    registry.config().onMeterRemoved(meter -> timers.values().remove(meter));
+                    meterRegistry = registry;
+                }
+            }
+        }
+        return registry;
+    }
+
+    private static String state(Object[] arguments) {
+        for (Object argument : arguments) {
+            if (argument instanceof BookingState) return ((BookingState) argument).name();
+            if (argument instanceof Status) return ((Status) argument).name();
+        }
+        return NONE;
+    }
+}
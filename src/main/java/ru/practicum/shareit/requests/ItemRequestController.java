@@ -2,9 +2,14 @@ package ru.practicum.shareit.requests;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
+import ru.practicum.shareit.user.SharerUser;
+import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
 
@@ -23,34 +28,53 @@ public class ItemRequestController {
     @PostMapping
     public ItemRequestDto addNew(
             @RequestBody ItemRequestDto itemRequestDto,
-            @RequestHeader("X-Sharer-User-Id") Long userId
+            @SharerUser User user
     ) {
-        log.info("Request to add new item request {} by user id = {}", itemRequestDto, userId);
-        return itemRequestService.addNew(itemRequestDto, userId);
+        log.info("Request to add new item request {} by user id = {}", itemRequestDto, user.getId());
+        return itemRequestService.addNew(itemRequestDto, user.getId());
     }
 
     @GetMapping
-    public List<ItemRequestDto> getByUserId(@RequestHeader("X-Sharer-User-Id") Long userId) {
-        log.info("user id = {} requested list of requests", userId);
-        return itemRequestService.getByUserId(userId);
+    public List<ItemRequestDto> getByUserId(
+            @SharerUser User user,
+            @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer size
+    ) {
+        log.info("user id = {} requested list of requests, from={}, size={}", user.getId(), from, size);
+        return itemRequestService.getByUserId(user.getId(), from, size);
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@SharerUser User user) {
+        log.info("user id = {} subscribed to answers for own requests", user.getId());
+        return itemRequestService.subscribe(user.getId());
     }
 
     @GetMapping("/all")
     public List<ItemRequestDto> getAll(
-            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @SharerUser User user,
             @RequestParam(required = false) Integer from,
             @RequestParam(required = false) Integer size
     ) {
         log.info("getAll requests from={}, size={}", from, size);
-        return itemRequestService.getAll(userId, from, size);
+        return itemRequestService.getAll(user.getId(), from, size);
     }
 
     @GetMapping("/{itemRequestId}")
     public ItemRequestDto getById(
             @PathVariable Long itemRequestId,
-            @RequestHeader("X-Sharer-User-Id") Long userId
+            @SharerUser User user
     ) {
         log.info("Request item request id, id = {}", itemRequestId);
-        return itemRequestService.getById(itemRequestId, userId);
+        return itemRequestService.getById(itemRequestId, user.getId());
+    }
+
+    @GetMapping("/{itemRequestId}/suggestions")
+    public List<ItemDto> getSuggestions(
+            @PathVariable Long itemRequestId,
+            @SharerUser User user
+    ) {
+        log.info("Request items suggested for item request id = {}", itemRequestId);
+        return itemRequestService.getSuggestions(itemRequestId, user.getId());
     }
 }
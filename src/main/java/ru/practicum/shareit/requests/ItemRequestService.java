@@ -1,5 +1,7 @@
 package ru.practicum.shareit.requests;
 
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.user.model.User;
 
@@ -8,11 +10,15 @@ import java.util.List;
 public interface ItemRequestService {
     ItemRequestDto addNew(ItemRequestDto itemRequestDto, Long userId);
 
-    List<ItemRequestDto> getByUserId(Long userId);
+    List<ItemRequestDto> getByUserId(Long userId, Integer from, Integer size);
 
     List<ItemRequestDto> getAll(Long userId, Integer from, Integer size);
 
     ItemRequestDto getById(Long itemRequestId, Long userId);
 
+    List<ItemDto> getSuggestions(Long itemRequestId, Long userId);
+
+    SseEmitter subscribe(Long userId);
+
     User getUser(Long userId);
 }
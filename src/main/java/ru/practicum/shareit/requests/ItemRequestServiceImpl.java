@@ -3,28 +3,34 @@ package ru.practicum.shareit.requests;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.search.ItemRequestIndex;
 import ru.practicum.shareit.requests.storage.ItemRequestRepository;
-import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.paging.OffsetLimitPageable;
 
-import java.util.Comparator;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ItemRequestServiceImpl implements ItemRequestService {
 
-    private final UserRepository userRepository;
+    private final UserCache userCache;
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRepository itemRepository;
+    private final ItemRequestIndex itemRequestIndex;
+    private final ItemRequestSubscribers itemRequestSubscribers;
 
     @Override
     public ItemRequestDto addNew(ItemRequestDto itemRequestDto, Long userId) {
@@ -34,28 +40,23 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
         ItemRequest request = itemRequestRepository.save(
                 ItemRequestMapper.toItemRequest(itemRequestDto, user));
-        return ItemRequestMapper.toItemRequestDto(request, itemRepository.findByRequestId(request.getId()));
+        itemRequestIndex.add(request);
+        // nobody could answer a request that did not exist a moment ago
+        return ItemRequestMapper.toItemRequestDto(request, List.of());
     }
 
     @Override
-    public List<ItemRequestDto> getByUserId(Long userId) {
-        User user = getUser(userId);
-        return itemRequestRepository.findByRequestor(user).stream()
-                .filter(request -> Objects.equals(request.getRequestor().getId(), userId))
-                .map(request -> ItemRequestMapper.toItemRequestDto(request, itemRepository.findByRequestId(request.getId())))
-                .sorted(Comparator.comparing(ItemRequestDto::getId))
-                .collect(Collectors.toList());
+    public List<ItemRequestDto> getByUserId(Long userId, Integer from, Integer size) {
+        getUser(userId);
+        return toItemRequestDtos(itemRequestRepository.findByRequestorId(userId,
+                OffsetLimitPageable.create(from, size, Sort.by(Sort.Direction.ASC, "id"))));
     }
 
     @Override
     public List<ItemRequestDto> getAll(Long userId, Integer from, Integer size) {
         User user = getUser(userId);
-        return itemRequestRepository
-                .findByRequestorNot(user,
-                        OffsetLimitPageable.create(from, size, Sort.by(Sort.Direction.DESC, "created")))
-                .stream()
-                .map(request -> ItemRequestMapper.toItemRequestDto(request, itemRepository.findByRequestId(request.getId())))
-                .collect(Collectors.toList());
+        return toItemRequestDtos(itemRequestRepository.findByRequestorNot(user,
+                OffsetLimitPageable.create(from, size, Sort.by(Sort.Direction.DESC, "created"))));
     }
 
     @Override
@@ -63,12 +64,45 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         getUser(userId); // just validate
         ItemRequest request = itemRequestRepository.findById(itemRequestId).orElseThrow(
                 () ->  new NotFoundException("no such itemRequestId"));
-        return ItemRequestMapper.toItemRequestDto(request, itemRepository.findByRequestId(request.getId()));
+        return toItemRequestDtos(List.of(request)).get(0);
+    }
+
+    @Override
+    public List<ItemDto> getSuggestions(Long itemRequestId, Long userId) {
+        getUser(userId); // just validate
+        if (!itemRequestRepository.existsById(itemRequestId)) throw new NotFoundException("no such itemRequestId");
+        List<Long> itemIds = itemRequestIndex.suggestions(itemRequestId);
+        if (itemIds.isEmpty()) return List.of();
+        return itemRepository.findByIdInOrderById(itemIds).stream()
+                .filter(item -> Boolean.TRUE.equals(item.getAvailable()))
+                .map(item -> ItemMapper.toItemDto(item, null, null, null))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public SseEmitter subscribe(Long userId) {
+        getUser(userId); // just validate
+        return itemRequestSubscribers.subscribe(userId);
     }
 
     @Override
     public User getUser(Long userId) {
-        return userRepository.findById(userId)
+        return userCache.findById(userId)
                 .orElseThrow(() -> new NotFoundException("user not found"));
     }
+
+    /**
+     * Maps a page of requests together with their answers, loaded by a single query for the whole page.
+     */
+    private List<ItemRequestDto> toItemRequestDtos(List<ItemRequest> requests) {
+        if (requests.isEmpty()) return List.of();
+        Map<Long, List<Item>> answers = itemRepository.findByRequestIdIn(requests.stream()
+                        .map(ItemRequest::getId)
+                        .collect(Collectors.toSet())).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        return requests.stream()
+                .map(request -> ItemRequestMapper.toItemRequestDto(request,
+                        answers.getOrDefault(request.getId(), List.of())))
+                .collect(Collectors.toList());
+    }
 }
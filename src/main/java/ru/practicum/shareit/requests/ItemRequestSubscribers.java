@@ -0,0 +1,212 @@
+package ru.practicum.shareit.requests;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Open event streams of requestors, by user id.
+ * A stream is an async request, so an idle subscriber holds a connection but no thread.
+ * Events are written by a small pool, every stream in turn and one event at a time, so the thread saving an item
+ * never waits for clients. A write to a stalled client blocks its sender thread, so the heartbeat drops a stream
+ * whose write takes longer than the write timeout and interrupts that write to give the thread back. Should the
+ * container ignore the interrupt, the write ends with the container's own write timeout, and until then as many
+ * stalled clients as there are senders delay the other streams. A stream which falls too far behind is dropped
+ * as well. Every stream gets a comment line as a heartbeat, so that streams of clients that went away fail
+ * and are dropped too.
+ */
+@Slf4j
+@Component
+public class ItemRequestSubscribers {
+
+    static final String ANSWER_EVENT = "answer";
+    static final String HEARTBEAT = "heartbeat";
+    static final int MAX_PENDING = 100;
+
+    private final long timeout;
+    private final long writeTimeoutNanos;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor senders;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(
+            daemon("item-request-heartbeats"));
+
+    public ItemRequestSubscribers(
+            @Value("${shareit.requests.stream.timeout:30m}") Duration timeout,
+            @Value("${shareit.requests.stream.heartbeat:15s}") Duration heartbeat,
+            @Value("${shareit.requests.stream.write-timeout:10s}") Duration writeTimeout,
+            @Value("${shareit.requests.stream.senders:4}") int senders
+    ) {
+        this.timeout = timeout.toMillis();
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.senders = new ThreadPoolExecutor(senders, senders, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>(),
+                daemon("item-request-events"));
+        this.senders.allowCoreThreadTimeOut(true);
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(Long userId) {
+        return subscribe(userId, new SseEmitter(timeout));
+    }
+
+    SseEmitter subscribe(Long userId, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        subscribers.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Sends the item answering one of the user's requests to all streams of the user.
+     */
+    public void publish(Long userId, ItemDto item) {
+        Set<Subscriber> streams = subscribers.get(userId);
+        if (streams == null) return;
+        for (Subscriber subscriber : streams) {
+            subscriber.offer(() -> SseEmitter.event()
+                    .name(ANSWER_EVENT)
+                    .id(String.valueOf(item.getId()))
+                    .data(item, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    public int size() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @PreDestroy
+    public void close() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscribers.values().forEach(streams -> streams.forEach(subscriber -> subscriber.emitter.complete()));
+        subscribers.clear();
+    }
+
+    void heartbeat() {
+        long now = System.nanoTime();
+        for (Set<Subscriber> streams : subscribers.values()) {
+            for (Subscriber subscriber : streams) {
+                long since = subscriber.sendingSince;
+                if (since != 0 && now - since > writeTimeoutNanos) {
+                    log.debug("Dropping stalled event stream of user id = {}", subscriber.userId);
+                    remove(subscriber);
+                    subscriber.abandon();
+                } else {
+                    subscriber.offer(() -> SseEmitter.event().comment(HEARTBEAT));
+                }
+            }
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.userId, (key, streams) -> {
+            streams.remove(subscriber);
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * One stream with the events not written yet. An event builder is not reusable, so events are queued
+     * as suppliers and built per stream.
+     */
+    private class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Queue<Supplier<SseEmitter.SseEventBuilder>> pending = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger pendingCount = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long sendingSince;
+        private Thread sendingThread;
+        private boolean abandoned;
+
+        Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Supplier<SseEmitter.SseEventBuilder> event) {
+            if (pendingCount.incrementAndGet() > MAX_PENDING) {
+                log.debug("Dropping event stream of user id = {}: too many events pending", userId);
+                remove(this);
+                return;
+            }
+            pending.add(event);
+            if (scheduled.compareAndSet(false, true)) senders.execute(this::drain);
+        }
+
+        private void drain() {
+            do {
+                Supplier<SseEmitter.SseEventBuilder> event;
+                while ((event = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    // a failed stream stays scheduled, so nothing is written to it any more
+                    if (!send(event.get())) return;
+                }
+                scheduled.set(false);
+            } while (!pending.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+
+        /**
+         * Interrupts the write in progress. The emitter is not completed here, it is locked by the write.
+         */
+        synchronized void abandon() {
+            abandoned = true;
+            if (sendingThread != null) sendingThread.interrupt();
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            synchronized (this) {
+                if (abandoned) return false;
+                sendingThread = Thread.currentThread();
+            }
+            sendingSince = System.nanoTime();
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Dropping event stream of user id = {}: {}", userId, e.getMessage());
+                remove(this);
+                emitter.completeWithError(e);
+                return false;
+            } finally {
+                sendingSince = 0;
+                synchronized (this) {
+                    sendingThread = null;
+                    // an interrupt that came after the write must not fail the next stream of this thread
+                    if (abandoned) Thread.interrupted();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.requests.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ItemRequestIndexView {
+    private Long id;
+    private String description;
+    private Long requestorId;
+}
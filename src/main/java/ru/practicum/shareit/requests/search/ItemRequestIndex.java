@@ -0,0 +1,202 @@
+package ru.practicum.shareit.requests.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.dto.ItemNameView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.requests.dto.ItemRequestIndexView;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.UserDeletedEvent;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index from the words of item request descriptions to the requests.
+ * An item added without a request is matched against it: a request matches when its description has every word
+ * of the item name, compared by {@link #stems}. The matched items are kept as suggestions for the request.
+ * Requests of the item owner are never suggested to them.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItemRequestIndex {
+
+    static final int MIN_WORD = 3;
+    static final int STEM_LENGTH = 5;
+    private static final String ENDINGS = "аеёиоуыэюяьйaeiouy";
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Long> requestors = new HashMap<>();
+    private final Map<Long, TreeSet<Long>> suggestions = new HashMap<>();
+    private final Map<Long, Set<Long>> suggestedTo = new HashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            requestors.clear();
+            suggestions.clear();
+            suggestedTo.clear();
+            for (ItemRequestIndexView request : itemRequestRepository.findAllForIndex()) {
+                put(request.getId(), request.getDescription(), request.getRequestorId());
+            }
+            for (ItemNameView item : itemRepository.findAllWithoutRequest()) {
+                match(item.getId(), item.getName(), item.getOwnerId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(ItemRequest request) {
+        lock.writeLock().lock();
+        try {
+            put(request.getId(), request.getDescription(), request.getRequestor().getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forgets the requests of the deleted user and the items that went with the user.
+     */
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        remove(event.getDeletedRequests(), event.getDeletedItemIds());
+    }
+
+    /**
+     * Forgets deleted requests and items.
+     */
+    public void remove(Collection<ItemRequestIndexView> requests, Collection<Long> itemIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long itemId : itemIds) {
+                unlink(itemId);
+            }
+            for (ItemRequestIndexView request : requests) {
+                requestors.remove(request.getId());
+                for (String stem : stems(request.getDescription())) {
+                    Set<Long> ids = postings.get(stem);
+                    if (ids == null) continue;
+                    ids.remove(request.getId());
+                    if (ids.isEmpty()) postings.remove(stem);
+                }
+                TreeSet<Long> items = suggestions.remove(request.getId());
+                if (items == null) continue;
+                for (Long itemId : items) {
+                    Set<Long> linked = suggestedTo.get(itemId);
+                    linked.remove(request.getId());
+                    if (linked.isEmpty()) suggestedTo.remove(itemId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Links the item to the requests its name matches, replacing the previous links, and returns their ids.
+     * An item made for a request is not suggested anywhere else.
+     */
+    public List<Long> match(Item item) {
+        lock.writeLock().lock();
+        try {
+            unlink(item.getId());
+            if (item.getRequest() != null) return List.of();
+            return match(item.getId(), item.getName(), item.getOwner().getId());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns ids of the items suggested for the request in ascending order.
+     */
+    public List<Long> suggestions(Long requestId) {
+        lock.readLock().lock();
+        try {
+            TreeSet<Long> items = suggestions.get(requestId);
+            return items == null ? List.of() : new ArrayList<>(items);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lowercased words of at least {@link #MIN_WORD} letters, with vowel endings cut off and at most
+     * {@link #STEM_LENGTH} letters kept, so that "дрель", "дрели" and "дрелью" are the same word.
+     */
+    static Set<String> stems(String text) {
+        Set<String> stems = new HashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).replace('ё', 'е').split("[^\\p{L}\\p{N}]+")) {
+            if (word.length() < MIN_WORD) continue;
+            int end = word.length();
+            while (end > MIN_WORD && ENDINGS.indexOf(word.charAt(end - 1)) >= 0) {
+                end--;
+            }
+            stems.add(word.substring(0, Math.min(end, STEM_LENGTH)));
+        }
+        return stems;
+    }
+
+    private void put(Long requestId, String description, Long requestorId) {
+        requestors.put(requestId, requestorId);
+        for (String stem : stems(description)) {
+            postings.computeIfAbsent(stem, key -> new HashSet<>()).add(requestId);
+        }
+    }
+
+    private List<Long> match(Long itemId, String name, Long ownerId) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String stem : stems(name)) {
+            Set<Long> requests = postings.get(stem);
+            if (requests == null) return List.of();
+            lists.add(requests);
+        }
+        if (lists.isEmpty()) return List.of();
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        List<Long> matched = new ArrayList<>();
+        for (Long requestId : lists.get(0)) {
+            if (Objects.equals(requestors.get(requestId), ownerId)) continue;
+            if (lists.stream().skip(1).allMatch(requests -> requests.contains(requestId))) matched.add(requestId);
+        }
+        matched.sort(Comparator.naturalOrder());
+        for (Long requestId : matched) {
+            suggestions.computeIfAbsent(requestId, key -> new TreeSet<>()).add(itemId);
+        }
+        if (!matched.isEmpty()) suggestedTo.put(itemId, new HashSet<>(matched));
+        return matched;
+    }
+
+    private void unlink(Long itemId) {
+        Set<Long> requests = suggestedTo.remove(itemId);
+        if (requests == null) return;
+        for (Long requestId : requests) {
+            TreeSet<Long> items = suggestions.get(requestId);
+            items.remove(itemId);
+            if (items.isEmpty()) suggestions.remove(requestId);
+        }
+    }
+}
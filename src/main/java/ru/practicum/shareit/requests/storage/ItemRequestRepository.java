@@ -2,7 +2,9 @@ package ru.practicum.shareit.requests.storage;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import ru.practicum.shareit.requests.dto.ItemRequestIndexView;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -11,7 +13,17 @@ import java.util.List;
 @Repository
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findByRequestor(User requestor);
+    @Query("select r from ItemRequest r where r.requestor.id = ?1")
+    List<ItemRequest> findByRequestorId(Long requestorId, Pageable pageable);
 
+    @Query("select new ru.practicum.shareit.requests.dto.ItemRequestIndexView(r.id, r.description, r.requestor.id) " +
+            "from ItemRequest r")
+    List<ItemRequestIndexView> findAllForIndex();
+
+    @Query("select new ru.practicum.shareit.requests.dto.ItemRequestIndexView(r.id, r.description, r.requestor.id) " +
+            "from ItemRequest r where r.requestor.id = ?1")
+    List<ItemRequestIndexView> findForIndexByRequestorId(Long requestorId);
+
+    @Query("select r from ItemRequest r where r.requestor <> ?1")
     List<ItemRequest> findByRequestorNot(User requestor, Pageable pageable);
 }
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.user;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@link ru.practicum.shareit.user.model.User} handler parameter to be resolved from the X-Sharer-User-Id
+ * header. A missing header is a 400 as with @RequestHeader, an unknown user is a 404.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SharerUser {
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Users looked up by id, remembered for the current request and in a bounded cache shared by all requests.
+ * The cached instances are detached and shared, they must not be changed; UserServiceImpl reads the user
+ * it updates from the repository and evicts it here.
+ */
+@Component
+public class UserCache {
+
+    static final String NAME = "users";
+    private static final String REQUEST_ATTRIBUTE = UserCache.class.getName() + ".";
+
+    private final UserRepository userRepository;
+    private final Cache<Long, User> cache;
+
+    public UserCache(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${shareit.user.cache.max-size:10000}") long maxSize,
+            @Value("${shareit.user.cache.ttl:10m}") Duration ttl
+    ) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, NAME);
+    }
+
+    public Optional<User> findById(Long userId) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            Object resolved = request.getAttribute(REQUEST_ATTRIBUTE + userId, RequestAttributes.SCOPE_REQUEST);
+            if (resolved != null) return Optional.of((User) resolved);
+        }
+        User user = cache.get(userId, id -> userRepository.findById(id).orElse(null));
+        if (user != null && request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE + userId, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return Optional.ofNullable(user);
+    }
+
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.removeAttribute(REQUEST_ATTRIBUTE + userId, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    /**
+     * After the commit, so a lookup made while the delete is in progress cannot cache the user again.
+     */
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        evict(event.getUserId());
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
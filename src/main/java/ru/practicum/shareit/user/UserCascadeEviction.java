@@ -0,0 +1,29 @@
+package ru.practicum.shareit.user;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.requests.model.ItemRequest;
+
+/**
+ * The database deletes the items and requests of a user by cascade, bypassing Hibernate,
+ * so its second-level cache may still hold the removed rows until they are evicted here.
+ */
+@Component
+@RequiredArgsConstructor
+public class UserCascadeEviction {
+
+    private final SessionFactory sessionFactory;
+
+    @TransactionalEventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        Cache secondLevelCache = sessionFactory.getCache();
+        event.getDeletedItemIds().forEach(itemId -> secondLevelCache.evictEntityData(Item.class, itemId));
+        event.getDeletedRequests()
+                .forEach(request -> secondLevelCache.evictEntityData(ItemRequest.class, request.getId()));
+        secondLevelCache.evictDefaultQueryRegion();
+    }
+}
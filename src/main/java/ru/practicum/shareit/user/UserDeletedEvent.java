@@ -0,0 +1,31 @@
+package ru.practicum.shareit.user;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.shareit.requests.dto.ItemRequestIndexView;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published when a user is deleted, with what the database deleted along with the user by cascade.
+ * Indexes and caches listen for it after the deleting transaction commits and drop only these entries.
+ */
+@Getter
+@RequiredArgsConstructor
+public class UserDeletedEvent {
+    private final Long userId;
+    /**
+     * Items of the user and items answering the user's requests.
+     */
+    private final Set<Long> deletedItemIds;
+    private final List<ItemRequestIndexView> deletedRequests;
+    /**
+     * Items that stay but lose the bookings the user made.
+     */
+    private final Set<Long> bookedItemIds;
+    /**
+     * Items that stay but lose the comments the user left.
+     */
+    private final Set<Long> commentedItemIds;
+}
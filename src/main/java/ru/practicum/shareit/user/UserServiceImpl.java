@@ -1,14 +1,26 @@
 package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemInfoCache;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.requests.dto.ItemRequestIndexView;
+import ru.practicum.shareit.requests.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -16,6 +28,14 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final ItemSearchCache itemSearchCache;
+    private final ItemInfoCache itemInfoCache;
+    private final UserCache userCache;
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final BookingRepository bookingRepository;
+    private final CommentRepository commentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public UserDto addUser(UserDto userDto) {
@@ -32,11 +52,22 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserDto updateUser(UserDto userDto, Long userId) {
         userDto.setId(userId);
+        // read past the cache, the cached instance is shared and must stay untouched
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new BadRequestException("Attempt to get user by absent id"));
+        boolean renamed = userDto.getName() != null && !userDto.getName().equals(user.getName());
         if (userDto.getName() != null) user.setName(userDto.getName());
         if (userDto.getEmail() != null) user.setEmail(userDto.getEmail());
-        return UserMapper.toUserDto(userRepository.save(user));
+        User saved = userRepository.save(user);
+        userCache.evict(userId);
+        if (renamed) {
+            // cached items show the names of their comment authors
+            for (Long itemId : commentRepository.findItemIdsByAuthorId(userId)) {
+                itemInfoCache.evictInfo(itemId);
+                itemSearchCache.itemTouched(itemId);
+            }
+        }
+        return UserMapper.toUserDto(saved);
     }
 
     @Override
@@ -50,8 +81,21 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new NotFoundException("Attempt to get user by absent id")));
     }
 
+    /**
+     * The database deletes the rest by cascade, so what goes with the user is read first, in the same transaction.
+     * Indexes and caches drop their entries once it commits, see {@link UserDeletedEvent}.
+     */
     @Override
+    @Transactional
     public void deleteUserById(Long userId) {
+        Set<Long> deletedItems = new HashSet<>(itemRepository.findIdsByOwnerId(userId));
+        deletedItems.addAll(itemRepository.findIdsByRequestorId(userId));
+        List<ItemRequestIndexView> deletedRequests = itemRequestRepository.findForIndexByRequestorId(userId);
+        Set<Long> bookedItems = new HashSet<>(bookingRepository.findItemIdsByBookerId(userId));
+        Set<Long> commentedItems = new HashSet<>(commentRepository.findItemIdsByAuthorId(userId));
+
         userRepository.deleteById(userId);
+        eventPublisher.publishEvent(
+                new UserDeletedEvent(userId, deletedItems, deletedRequests, bookedItems, commentedItems));
     }
 }
@@ -18,6 +18,10 @@ CREATE TABLE IF NOT EXISTS requests
     CONSTRAINT pk_request PRIMARY KEY (id)
 );
 
+CREATE INDEX IF NOT EXISTS ix_requests_requestor ON requests (requestor_id, id);
+-- descending, so that the newest-first listing of other users' requests walks it and stops at the page end
+CREATE INDEX IF NOT EXISTS ix_requests_created ON requests (created DESC);
+
 CREATE TABLE IF NOT EXISTS items
 (
     id          BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -29,6 +33,9 @@ CREATE TABLE IF NOT EXISTS items
     CONSTRAINT pk_item PRIMARY KEY (id)
 );
 
+CREATE INDEX IF NOT EXISTS ix_items_owner ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS ix_items_request ON items (request_id, id);
+
 CREATE TABLE IF NOT EXISTS bookings
 (
    id BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
@@ -36,9 +43,20 @@ CREATE TABLE IF NOT EXISTS bookings
    end_date TIMESTAMP WITHOUT TIME ZONE,
    item_id BIGINT REFERENCES items(id) ON DELETE CASCADE,
    booker_id BIGINT REFERENCES users(id) ON DELETE CASCADE,
-   status VARCHAR(128)
+   status VARCHAR(128),
+   version BIGINT DEFAULT 0 NOT NULL,
+   -- copy of items.owner_id, so that owner listings do not go through items
+   owner_id BIGINT REFERENCES users(id) ON DELETE CASCADE,
+   CONSTRAINT pk_booking PRIMARY KEY (id)
 );
 
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_start ON bookings (booker_id, start_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_status_start ON bookings (booker_id, status, start_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_booker_item ON bookings (booker_id, item_id);
+CREATE INDEX IF NOT EXISTS ix_bookings_item_start ON bookings (item_id, start_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_owner_start ON bookings (owner_id, start_date);
+CREATE INDEX IF NOT EXISTS ix_bookings_owner_status_start ON bookings (owner_id, status, start_date);
+
 
 CREATE TABLE IF NOT EXISTS comments
 (
@@ -48,4 +66,7 @@ CREATE TABLE IF NOT EXISTS comments
     author_id BIGINT REFERENCES users(id) ON DELETE CASCADE,
     created TIMESTAMP WITHOUT TIME ZONE,
     CONSTRAINT pk_comment PRIMARY KEY (id)
-);
\ No newline at end of file
+);
+
+CREATE INDEX IF NOT EXISTS ix_comments_item ON comments (item_id, id);
+CREATE INDEX IF NOT EXISTS ix_comments_author ON comments (author_id, item_id);
\ No newline at end of file
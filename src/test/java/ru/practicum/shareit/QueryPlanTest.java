@@ -0,0 +1,199 @@
+package ru.practicum.shareit;
+
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.paging.KeysetCursor;
+import ru.practicum.shareit.paging.OffsetLimitPageable;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs H2 EXPLAIN on the SQL that every repository query actually sends and fails on table scans.
+ * The few queries that load a whole table on purpose are checked with {@link #assertFullLoad}.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.QueryPlanTest$Capture")
+@ExtendWith(SpringExtension.class)
+public class QueryPlanTest {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+    private static final LocalDateTime NOW = LocalDateTime.of(2032, 9, 15, 9, 19);
+    private static final Pageable BY_START = OffsetLimitPageable.create(0, 10, Sort.by(Sort.Direction.DESC, "start"));
+    private static final Pageable BY_ID = OffsetLimitPageable.create(0, 10, Sort.by(Sort.Direction.ASC, "id"));
+
+    @Autowired
+    private TestEntityManager em;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    private User owner;
+    private User booker;
+    private Item item;
+    private ItemRequest request;
+    private Booking booking;
+
+    public static class Capture implements StatementInspector {
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+
+    @BeforeEach
+    public void before() {
+        owner = em.persist(new User(null, "owner", "owner@email.com"));
+        booker = em.persist(new User(null, "booker", "booker@email.com"));
+        request = em.persist(new ItemRequest(null, "need a drill", booker, ZonedDateTime.now()));
+        item = em.persist(new Item(null, "drill", "a drill", true, owner, request));
+        booking = em.persist(new Booking(null, NOW.minusDays(2), NOW.minusDays(1), item, booker, Status.APPROVED));
+        em.persist(new Comment(null, "fine", item, booker, NOW));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void bookerQueriesUseIndexes() {
+        assertIndexed(() -> bookingRepository.findById(booking.getId()));
+        assertIndexed(() -> bookingRepository.findByBooker(booker, BY_START));
+        assertIndexed(() -> bookingRepository.findByBookerAndEndIsBefore(booker, NOW, BY_START));
+        assertIndexed(() -> bookingRepository.findByBookerAndStartIsAfter(booker, NOW, BY_START));
+        assertIndexed(() -> bookingRepository.findCurrentByBooker(booker, BY_START));
+        assertIndexed(() -> bookingRepository.findByBookerAndStatus(booker, Status.WAITING, BY_START));
+        assertIndexed(() -> bookingRepository.findByBookerAndItem(booker, item));
+        assertIndexed(() -> bookingRepository.findByBookerAfter(booker, BookingState.ALL, NOW,
+                new KeysetCursor(NOW, booking.getId()), 10));
+        assertIndexed(() -> bookingRepository.findByBookerAfter(booker, BookingState.REJECTED, NOW, null, 10));
+        assertIndexed(() -> bookingRepository.findItemIdsByBookerId(booker.getId()));
+    }
+
+    @Test
+    public void ownerQueriesUseIndexes() {
+        assertIndexed(() -> bookingRepository.findByOwner(owner.getId(), BY_START));
+        assertIndexed(() -> bookingRepository.findByOwnerAndEndIsBefore(owner.getId(), NOW, BY_START));
+        assertIndexed(() -> bookingRepository.findByOwnerAndStartIsAfter(owner.getId(), NOW, BY_START));
+        assertIndexed(() -> bookingRepository.findCurrentByOwner(owner.getId(), BY_START));
+        assertIndexed(() -> bookingRepository.findByOwnerAndStatus(owner.getId(), Status.WAITING, BY_START));
+        assertIndexed(() -> bookingRepository.findByOwnerAfter(owner, BookingState.ALL, NOW,
+                new KeysetCursor(NOW, booking.getId()), 10));
+        assertIndexed(() -> bookingRepository.findByOwnerAfter(owner, BookingState.WAITING, NOW, null, 10));
+        assertIndexed(() -> bookingRepository.findOwnershipByIdIn(List.of(booking.getId())));
+        assertIndexed(() -> bookingRepository.updateStatusIfWaiting(booking.getId(), Status.APPROVED));
+    }
+
+    @Test
+    public void itemBookingQueriesUseIndexes() {
+        assertIndexed(() -> bookingRepository.findLastAndNextByItemIdIn(List.of(item.getId()), NOW));
+        assertIndexed(() -> bookingRepository.findNextBoundary(item.getId(), NOW));
+        assertFullLoad(() -> bookingRepository.findIntervalsByStatusIn(List.of(Status.WAITING, Status.APPROVED)));
+    }
+
+    @Test
+    public void itemQueriesUseIndexes() {
+        assertIndexed(() -> itemRepository.findById(item.getId()));
+        assertIndexed(() -> itemRepository.findByOwner(owner, BY_ID));
+        assertIndexed(() -> itemRepository.findByIdInOrderById(List.of(item.getId())));
+        assertIndexed(() -> itemRepository.findByRequestIdIn(List.of(request.getId())));
+        assertIndexed(() -> itemRepository.getItemOwner(item.getId()));
+        assertIndexed(() -> itemRepository.findAllWithoutRequest());
+        assertIndexed(() -> itemRepository.findIdsByOwnerId(owner.getId()));
+        assertIndexed(() -> itemRepository.findIdsByRequestorId(booker.getId()));
+        // substring search is what the search index is for, the database is only asked for wildcard patterns
+        assertFullLoad(() -> itemRepository.search("dri", BY_ID));
+        assertFullLoad(() -> itemRepository.findAllForSearch());
+    }
+
+    @Test
+    public void commentQueriesUseIndexes() {
+        assertIndexed(() -> commentRepository.findByItemId(item.getId()));
+        assertIndexed(() -> commentRepository.findByItemIdIn(List.of(item.getId())));
+        assertIndexed(() -> commentRepository.findItemIdsByAuthorId(booker.getId()));
+    }
+
+    @Test
+    public void requestQueriesUseIndexes() {
+        assertIndexed(() -> itemRequestRepository.findById(request.getId()));
+        assertIndexed(() -> itemRequestRepository.existsById(request.getId()));
+        assertIndexed(() -> itemRequestRepository.findByRequestorId(booker.getId(), BY_ID));
+        assertIndexed(() -> itemRequestRepository.findByRequestorNot(owner,
+                OffsetLimitPageable.create(0, 10, Sort.by(Sort.Direction.DESC, "created"))));
+        assertFullLoad(() -> itemRequestRepository.findAllForIndex());
+        assertIndexed(() -> itemRequestRepository.findForIndexByRequestorId(booker.getId()));
+    }
+
+    private void assertIndexed(Runnable query) {
+        for (String plan : plans(query)) {
+            assertFalse(plan.contains(".tableScan"), "table scan in\n" + plan);
+        }
+    }
+
+    private void assertFullLoad(Runnable query) {
+        for (String plan : plans(query)) {
+            assertTrue(plan.startsWith("SELECT"), plan);
+        }
+    }
+
+    private List<String> plans(Runnable query) {
+        STATEMENTS.clear();
+        query.run();
+        List<String> plans = new ArrayList<>();
+        for (String sql : STATEMENTS) {
+            plans.add(explain(sql));
+        }
+        assertFalse(plans.isEmpty(), "no statement was sent");
+        return plans;
+    }
+
+    private String explain(String sql) {
+        return em.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                int parameters = statement.getParameterMetaData().getParameterCount();
+                for (int i = 1; i <= parameters; i++) {
+                    // the plan is made when the statement is prepared, the values do not change it
+                    statement.setNull(i, Types.NULL);
+                }
+                try (ResultSet result = statement.executeQuery()) {
+                    result.next();
+                    return result.getString(1).toUpperCase(Locale.ROOT).replace(".TABLESCAN", ".tableScan");
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.model.User;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles({"test", "l2cache"})
+@AutoConfigureTestDatabase
+@ExtendWith(SpringExtension.class)
+public class SecondLevelCacheIntegratedTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private SessionFactory sessionFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+    private User owner;
+    private Item item;
+
+    @BeforeEach
+    public void before() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        sessionFactory.getCache().evictAllRegions();
+        owner = userRepository.save(new User(null, "owner", "owner@email.com"));
+        item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void entitiesAreServedFromCacheUntilChanged() {
+        itemRepository.findById(item.getId());
+        long loads = statistics.getEntityLoadCount();
+        itemRepository.findById(item.getId());
+        assertTrue(statistics.getSecondLevelCacheHitCount() > 0);
+        assertEquals(loads, statistics.getEntityLoadCount());
+
+        item.setName("Перфоратор");
+        itemRepository.save(item);
+        assertEquals("Перфоратор", itemRepository.findById(item.getId()).orElseThrow().getName());
+    }
+
+    @Test
+    public void itemOwnerQueryIsCached() {
+        itemRepository.getItemOwner(item.getId());
+        itemRepository.getItemOwner(item.getId());
+
+        assertEquals(1, statistics.getQueryCacheMissCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    public void cascadeDeleteOfUserEvictsCachedItems() {
+        itemRepository.findById(item.getId());
+
+        userService.deleteUserById(owner.getId());
+
+        assertFalse(itemRepository.findById(item.getId()).isPresent());
+    }
+
+    @Test
+    public void statisticsAreExportedAsMetrics() {
+        itemRepository.findById(item.getId());
+
+        assertThat(meterRegistry.find("hibernate.second.level.cache.requests").meters(), not(empty()));
+    }
+}
@@ -13,11 +13,13 @@ import org.mockito.quality.Strictness;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.paging.KeysetCursor;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -27,10 +29,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -75,9 +79,10 @@ public class BookingControllerTest {
                 1L,
                 START,
                 END,
-                item,
-                user,
-                Status.WAITING
+                Status.WAITING,
+                item.getId(),
+                item.getName(),
+                user.getId()
         );
 
         booking = new Booking(
@@ -132,6 +137,27 @@ public class BookingControllerTest {
         verify(bookingService).setBookingApproveStatus(eq(bookingId), eq(userId), eq(true));
     }
 
+    @Test
+    void approveAll() throws Exception {
+        when(bookingService.setBookingsApproveStatus(any(), anyLong(), anyBoolean())).thenReturn(List.of(
+                new BookingApprovalResultDto(1L, BookingApprovalResultDto.Result.REJECTED),
+                new BookingApprovalResultDto(2L, BookingApprovalResultDto.Result.NOT_FOUND)));
+
+        long userId = 123L;
+        mvc.perform(patch("/bookings/bulk?approved=false")
+                .content(mapper.writeValueAsString(List.of(1L, 2L)))
+                .header("X-Sharer-User-Id", userId)
+                .characterEncoding(StandardCharsets.UTF_8)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].bookingId", is(1)))
+                .andExpect(jsonPath("$[0].result", is("REJECTED")))
+                .andExpect(jsonPath("$[1].result", is("NOT_FOUND")));
+
+        verify(bookingService).setBookingsApproveStatus(eq(List.of(1L, 2L)), eq(userId), eq(false));
+    }
+
     @Test
     void getBookingInfo() throws Exception {
         when(bookingService.getBookingInfo(anyLong(), anyLong())).thenReturn(booking);
@@ -155,8 +181,8 @@ public class BookingControllerTest {
 
     @Test
     void getAllBookings() throws Exception {
-        List<Booking> bookings = new ArrayList<>();
-        bookings.add(booking);
+        List<BookingOutputDto> bookings = new ArrayList<>();
+        bookings.add(bookingOutputDto);
 
         when(bookingService.getAllBookings(anyLong(), any(), any(), any())).thenReturn(bookings);
 
@@ -173,8 +199,8 @@ public class BookingControllerTest {
 
     @Test
     void getAllBookingsForOwner() throws Exception {
-        List<Booking> bookings = new ArrayList<>();
-        bookings.add(booking);
+        List<BookingOutputDto> bookings = new ArrayList<>();
+        bookings.add(bookingOutputDto);
 
         when(bookingService.getAllBookingsForOwner(anyLong(), any(), any(), any())).thenReturn(bookings);
 
@@ -191,8 +217,8 @@ public class BookingControllerTest {
 
     @Test
     void getAllBookingsWithPaging() throws Exception {
-        List<Booking> bookings = new ArrayList<>();
-        bookings.add(booking);
+        List<BookingOutputDto> bookings = new ArrayList<>();
+        bookings.add(bookingOutputDto);
 
         when(bookingService.getAllBookings(anyLong(), any(), any(), any())).thenReturn(bookings);
 
@@ -209,8 +235,8 @@ public class BookingControllerTest {
 
     @Test
     void getAllBookingsForOwnerWithPaging() throws Exception {
-        List<Booking> bookings = new ArrayList<>();
-        bookings.add(booking);
+        List<BookingOutputDto> bookings = new ArrayList<>();
+        bookings.add(bookingOutputDto);
 
         when(bookingService.getAllBookingsForOwner(anyLong(), any(), any(), any())).thenReturn(bookings);
 
@@ -224,4 +250,35 @@ public class BookingControllerTest {
 
         verify(bookingService).getAllBookingsForOwner(eq(userId), eq(BookingState.ALL), eq(1), eq(20));
     }
+
+    @Test
+    void getBookingsPageReturnsNextCursorForFullPage() throws Exception {
+        when(bookingService.getBookingsAfter(anyLong(), any(), any(), anyInt())).thenReturn(List.of(bookingOutputDto));
+
+        long userId = 123L;
+        KeysetCursor cursor = new KeysetCursor(END, 10L);
+        mvc.perform(get("/bookings?state=PAST&size=1&cursor=" + cursor.encode())
+                .header("X-Sharer-User-Id", userId)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(1)))
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER,
+                        new KeysetCursor(START, 1L).encode()));
+
+        verify(bookingService).getBookingsAfter(eq(userId), eq(BookingState.PAST), eq(cursor), eq(1));
+    }
+
+    @Test
+    void getBookingsPageForOwnerStartsWithEmptyCursor() throws Exception {
+        when(bookingService.getBookingsForOwnerAfter(anyLong(), any(), any(), anyInt())).thenReturn(List.of(bookingOutputDto));
+
+        long userId = 123L;
+        mvc.perform(get("/bookings/owner?cursor=")
+                .header("X-Sharer-User-Id", userId)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(BookingController.NEXT_CURSOR_HEADER, nullValue()));
+
+        verify(bookingService).getBookingsForOwnerAfter(eq(userId), eq(BookingState.ALL), isNull(), eq(20));
+    }
 }
@@ -0,0 +1,149 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertFalse;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+public class BookingIntervalTreeTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2032, 9, 15, 9, 0);
+
+    private final BookingIntervalTree underTest = new BookingIntervalTree();
+
+    @Test
+    public void empty_tree_has_no_overlaps() {
+        assertFalse("overlap in empty tree", underTest.overlaps(at(0), at(10)));
+    }
+
+    @Test
+    public void detects_overlaps() {
+        underTest.insert(interval(1L, 10, 20));
+        underTest.insert(interval(2L, 30, 40));
+
+        assertTrue("inner window", underTest.overlaps(at(12), at(15)));
+        assertTrue("covering window", underTest.overlaps(at(5), at(45)));
+        assertTrue("crossing start", underTest.overlaps(at(25), at(31)));
+        assertFalse("gap between bookings", underTest.overlaps(at(20), at(30)));
+        assertFalse("before all", underTest.overlaps(at(0), at(10)));
+        assertFalse("after all", underTest.overlaps(at(40), at(50)));
+    }
+
+    @Test
+    public void finds_long_interval_hidden_behind_short_ones() {
+        underTest.insert(interval(1L, 0, 100));
+        underTest.insert(interval(2L, 10, 11));
+        underTest.insert(interval(3L, 20, 21));
+
+        assertTrue("long interval missed", underTest.overlaps(at(50), at(60)));
+    }
+
+    @Test
+    public void removed_interval_does_not_block() {
+        BookingInterval interval = interval(1L, 10, 20);
+        underTest.insert(interval);
+
+        assertTrue("not removed", underTest.remove(interval));
+        assertFalse("still blocks", underTest.overlaps(at(10), at(20)));
+        assertEquals("wrong size", 0, underTest.size());
+    }
+
+    @Test
+    public void remove_of_absent_interval_changes_nothing() {
+        underTest.insert(interval(1L, 10, 20));
+
+        assertFalse("removed absent", underTest.remove(interval(2L, 10, 20)));
+        assertEquals("wrong size", 1, underTest.size());
+    }
+
+    @Test
+    public void remove_if_drops_only_matching_intervals() {
+        for (long id = 1; id <= 6; id++) {
+            underTest.insert(new BookingInterval(id, 1L, id % 2 == 0 ? 7L : 8L, at((int) id * 10), at((int) id * 10 + 5)));
+        }
+
+        assertEquals("wrong count", 3, underTest.removeIf(interval -> interval.getBookerId() == 7L));
+        assertEquals("wrong size", 3, underTest.size());
+        assertFalse("removed still blocks", underTest.overlaps(at(20), at(25)));
+        assertTrue("kept does not block", underTest.overlaps(at(10), at(15)));
+    }
+
+    @Test
+    public void matches_brute_force_on_random_data() {
+        Random random = new Random(42);
+        List<BookingInterval> intervals = new ArrayList<>();
+        for (long id = 0; id < 2000; id++) {
+            int start = random.nextInt(10000);
+            BookingInterval interval = interval(id, start, start + 1 + random.nextInt(50));
+            intervals.add(interval);
+            underTest.insert(interval);
+        }
+        for (int i = 0; i < 500; i++) {
+            underTest.remove(intervals.remove(random.nextInt(intervals.size())));
+        }
+
+        for (int i = 0; i < 2000; i++) {
+            int start = random.nextInt(10000);
+            LocalDateTime from = at(start);
+            LocalDateTime to = at(start + 1 + random.nextInt(20));
+            boolean expected = intervals.stream().anyMatch(interval -> interval.overlaps(from, to));
+            assertEquals("wrong answer for " + from + " - " + to, expected, underTest.overlaps(from, to));
+        }
+    }
+
+    @Test
+    public void collects_overlapping_in_start_order() {
+        BookingInterval longOne = interval(1L, 0, 100);
+        BookingInterval middle = interval(2L, 40, 50);
+        underTest.insert(interval(3L, 120, 130));
+        underTest.insert(middle);
+        underTest.insert(longOne);
+        underTest.insert(interval(4L, 10, 20));
+
+        List<BookingInterval> found = new ArrayList<>();
+        underTest.collectOverlapping(at(30), at(60), found);
+
+        assertEquals("wrong intervals", List.of(longOne, middle), found);
+    }
+
+    @Test
+    public void collects_same_as_brute_force_on_random_data() {
+        Random random = new Random(7);
+        List<BookingInterval> intervals = new ArrayList<>();
+        for (long id = 0; id < 1000; id++) {
+            int start = random.nextInt(5000);
+            BookingInterval interval = interval(id, start, start + 1 + random.nextInt(100));
+            intervals.add(interval);
+            underTest.insert(interval);
+        }
+        intervals.sort(Comparator.comparing(BookingInterval::getStart).thenComparing(BookingInterval::getId));
+
+        for (int i = 0; i < 200; i++) {
+            int start = random.nextInt(5000);
+            LocalDateTime from = at(start);
+            LocalDateTime to = at(start + 1 + random.nextInt(200));
+            List<BookingInterval> expected = intervals.stream()
+                    .filter(interval -> interval.overlaps(from, to))
+                    .collect(Collectors.toList());
+            List<BookingInterval> found = new ArrayList<>();
+            underTest.collectOverlapping(from, to, found);
+            assertEquals("wrong answer for " + from + " - " + to, expected, found);
+        }
+    }
+
+    private BookingInterval interval(Long id, int startHour, int endHour) {
+        return new BookingInterval(id, 1L, at(startHour), at(endHour));
+    }
+
+    private LocalDateTime at(int hours) {
+        return BASE.plusHours(hours);
+    }
+}
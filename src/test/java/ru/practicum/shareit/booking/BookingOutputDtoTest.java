@@ -6,6 +6,7 @@ import org.springframework.boot.test.autoconfigure.json.JsonTest;
 import org.springframework.boot.test.json.JacksonTester;
 import org.springframework.boot.test.json.JsonContent;
 import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
@@ -25,14 +26,14 @@ public class BookingOutputDtoTest {
 
     @Test
     void testBookingOutputDto() throws Exception {
-        BookingOutputDto bookingOutputDto = new BookingOutputDto(
+        BookingOutputDto bookingOutputDto = BookingMapper.toBookingOutputDto(new Booking(
                 1L,
                 START,
                 END,
                 createItem(),
                 createUser(),
                 Status.APPROVED
-        );
+        ));
 
         JsonContent<BookingOutputDto> result = json.write(bookingOutputDto);
 
@@ -40,6 +41,8 @@ public class BookingOutputDtoTest {
         assertThat(result).extractingJsonPathStringValue("$.start").isNotBlank();
         assertThat(result).extractingJsonPathStringValue("$.end").isNotBlank();
         assertThat(result).extractingJsonPathNumberValue("$.item.id").isEqualTo(11);
+        assertThat(result).extractingJsonPathStringValue("$.item.name").isEqualTo("My item");
+        assertThat(result).extractingJsonPathValue("$.item.description").isNull();
         assertThat(result).extractingJsonPathNumberValue("$.booker.id").isEqualTo(111);
         assertThat(result).extractingJsonPathStringValue("$.status").isEqualTo("APPROVED");
     }
@@ -6,20 +6,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.paging.KeysetCursor;
 import ru.practicum.shareit.paging.OffsetLimitPageable;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 @DataJpaTest
 @ExtendWith(SpringExtension.class)
@@ -57,9 +63,9 @@ public class BookingRepositoryTest {
         em.persist(booking1);
         em.persist(booking2);
 
-        List<Booking> found = repository.findByBooker(booker1, OffsetLimitPageable.unpaged());
-        assertThat(found, hasItems(booking1));
-        assertThat(found, not(hasItems(booking2)));
+        List<Long> found = ids(repository.findByBooker(booker1, OffsetLimitPageable.unpaged()));
+        assertThat(found, hasItems(booking1.getId()));
+        assertThat(found, not(hasItems(booking2.getId())));
     }
 
     @Test
@@ -89,9 +95,46 @@ public class BookingRepositoryTest {
         em.persist(booking2b);
         em.persist(booking2c);
 
-        List<Booking> found = repository.findCurrentByBooker(booker1, OffsetLimitPageable.unpaged());
-        assertThat(found, hasItems(booking1a));
-        assertThat(found, not(hasItems(booking1b, booking1c, booking2a, booking2b, booking2c)));
+        List<Long> found = ids(repository.findCurrentByBooker(booker1, OffsetLimitPageable.unpaged()));
+        assertThat(found, hasItems(booking1a.getId()));
+        assertThat(found, not(hasItems(booking1b.getId(), booking1c.getId(), booking2a.getId(), booking2b.getId(), booking2c.getId())));
+    }
+
+    @Test
+    public void findIntervalsByStatusIn() {
+        User owner = createUser("owner");
+        User booker = createUser("booker");
+        Item item = createItem("item", owner);
+        Booking approved = createBooking(item, booker);
+        Booking rejected = createBooking(item, booker);
+        rejected.setStatus(Status.REJECTED);
+
+        em.persist(owner);
+        em.persist(booker);
+        em.persist(item);
+        em.persist(approved);
+        em.persist(rejected);
+
+        List<BookingInterval> found = repository.findIntervalsByStatusIn(BookingIntervalIndex.BLOCKING_STATUSES);
+        assertThat(found, hasItems(new BookingInterval(approved.getId(), item.getId(), booker.getId(), START, END)));
+        assertThat(found, not(hasItems(new BookingInterval(rejected.getId(), item.getId(), booker.getId(), START, END))));
+    }
+
+    @Test
+    public void ownerIdIsTakenFromItemOnPersist() {
+        User owner = createUser("owner");
+        User booker = createUser("booker");
+        Item item = createItem("item", owner);
+        Booking booking = createBooking(item, booker);
+
+        em.persist(owner);
+        em.persist(booker);
+        em.persist(item);
+        em.persist(booking);
+        em.flush();
+        em.clear();
+
+        assertEquals(owner.getId(), em.find(Booking.class, booking.getId()).getOwnerId());
     }
 
     @Test
@@ -112,9 +155,9 @@ public class BookingRepositoryTest {
         em.persist(booking1);
         em.persist(booking2);
 
-        List<Booking> found = repository.findByOwner(owner1, OffsetLimitPageable.unpaged());
-        assertThat(found, hasItems(booking1));
-        assertThat(found, not(hasItems(booking2)));
+        List<Long> found = ids(repository.findByOwner(owner1.getId(), OffsetLimitPageable.unpaged()));
+        assertThat(found, hasItems(booking1.getId()));
+        assertThat(found, not(hasItems(booking2.getId())));
     }
 
     @Test
@@ -145,9 +188,116 @@ public class BookingRepositoryTest {
         em.persist(booking2b);
         em.persist(booking2c);
 
-        List<Booking> found = repository.findCurrentByOwner(owner, OffsetLimitPageable.unpaged());
-        assertThat(found, hasItems(booking1a));
-        assertThat(found, not(hasItems(booking1b, booking1c, booking2a, booking2b, booking2c)));
+        List<Long> found = ids(repository.findCurrentByOwner(owner.getId(), OffsetLimitPageable.unpaged()));
+        assertThat(found, hasItems(booking1a.getId()));
+        assertThat(found, not(hasItems(booking1b.getId(), booking1c.getId(), booking2a.getId(), booking2b.getId(), booking2c.getId())));
+    }
+
+    @Test
+    public void findByBookerAfterWalksAllPagesInOrder() {
+        User owner = createUser("owner");
+        User booker = createUser("booker");
+        Item item = createItem("item", owner);
+        em.persist(owner);
+        em.persist(booker);
+        em.persist(item);
+        List<Booking> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // pairs of bookings share a start to check the id tie-break
+            Booking booking = createBooking(item, booker, START.plusDays(i / 2), END.plusDays(i / 2));
+            em.persist(booking);
+            expected.add(0, booking);
+        }
+
+        List<BookingOutputDto> walked = new ArrayList<>();
+        KeysetCursor cursor = null;
+        for (int page = 0; page < 4; page++) {
+            List<BookingOutputDto> found = repository.findByBookerAfter(booker, BookingState.ALL, LocalDateTime.now(), cursor, 2);
+            walked.addAll(found);
+            BookingOutputDto last = found.get(found.size() - 1);
+            cursor = new KeysetCursor(last.getStart(), last.getId());
+        }
+
+        assertEquals(expected.size(), walked.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), walked.get(i).getId());
+        }
+    }
+
+    @Test
+    public void findByOwnerAfterAppliesState() {
+        User owner = createUser("owner");
+        User booker = createUser("booker");
+        Item item = createItem("item", owner);
+        LocalDateTime now = LocalDateTime.now();
+        Booking past = createBooking(item, booker, now.minusDays(3), now.minusDays(2));
+        Booking future = createBooking(item, booker, now.plusDays(2), now.plusDays(3));
+        Booking rejected = createBooking(item, booker, now.plusDays(4), now.plusDays(5));
+        rejected.setStatus(Status.REJECTED);
+
+        em.persist(owner);
+        em.persist(booker);
+        em.persist(item);
+        em.persist(past);
+        em.persist(future);
+        em.persist(rejected);
+
+        List<Long> found = ids(repository.findByOwnerAfter(owner, BookingState.FUTURE, now, null, 10));
+        assertEquals(List.of(rejected.getId(), future.getId()), found);
+
+        found = ids(repository.findByOwnerAfter(owner, BookingState.PAST, now, null, 10));
+        assertEquals(List.of(past.getId()), found);
+
+        found = ids(repository.findByOwnerAfter(owner, BookingState.REJECTED, now, null, 10));
+        assertEquals(List.of(rejected.getId()), found);
+    }
+
+    @Test
+    public void pagedAndKeysetListingsAgreeOnBoundaries() {
+        User owner = createUser("owner");
+        User booker = createUser("booker");
+        Item item = createItem("item", owner);
+        LocalDateTime now = LocalDateTime.of(2032, 9, 1, 12, 0);
+        Booking endsNow = createBooking(item, booker, now.minusDays(1), now);
+        Booking startsNow = createBooking(item, booker, now, now.plusDays(1));
+        em.persist(owner);
+        em.persist(booker);
+        em.persist(item);
+        em.persist(endsNow);
+        em.persist(startsNow);
+
+        // a booking ending or starting right now is current, neither past nor future
+        assertEquals(List.of(), ids(repository.findByBookerAndEndIsBefore(booker, now, OffsetLimitPageable.unpaged())));
+        assertEquals(List.of(), ids(repository.findByOwnerAndEndIsBefore(owner.getId(), now,
+                OffsetLimitPageable.unpaged())));
+        assertEquals(List.of(), ids(repository.findByBookerAfter(booker, BookingState.PAST, now, null, 10)));
+        assertEquals(List.of(), ids(repository.findByOwnerAfter(owner, BookingState.PAST, now, null, 10)));
+
+        assertEquals(List.of(), ids(repository.findByBookerAndStartIsAfter(booker, now, OffsetLimitPageable.unpaged())));
+        assertEquals(List.of(), ids(repository.findByOwnerAndStartIsAfter(owner.getId(), now,
+                OffsetLimitPageable.unpaged())));
+        assertEquals(List.of(), ids(repository.findByBookerAfter(booker, BookingState.FUTURE, now, null, 10)));
+        assertEquals(List.of(), ids(repository.findByOwnerAfter(owner, BookingState.FUTURE, now, null, 10)));
+    }
+
+    @Test
+    public void findNextBoundary() {
+        User owner = createUser("owner");
+        User booker = createUser("booker");
+        Item item = createItem("item", owner);
+        LocalDateTime now = LocalDateTime.of(2032, 9, 1, 12, 0);
+        em.persist(owner);
+        em.persist(booker);
+        em.persist(item);
+        em.persist(createBooking(item, booker, now.minusDays(5), now.minusDays(4)));
+
+        assertNull(repository.findNextBoundary(item.getId(), now));
+
+        em.persist(createBooking(item, booker, now.plusDays(3), now.plusDays(4)));
+        assertEquals(now.plusDays(3), repository.findNextBoundary(item.getId(), now));
+
+        em.persist(createBooking(item, booker, now.minusDays(1), now.plusDays(1)));
+        assertEquals(now.plusDays(1), repository.findNextBoundary(item.getId(), now));
     }
 
     private User createUser(String name) {
@@ -179,4 +329,8 @@ public class BookingRepositoryTest {
     private Booking createBooking(Item item, User booker) {
         return createBooking(item, booker, START, END);
     }
+
+    private List<Long> ids(List<BookingOutputDto> bookings) {
+        return bookings.stream().map(BookingOutputDto::getId).collect(Collectors.toList());
+    }
 }
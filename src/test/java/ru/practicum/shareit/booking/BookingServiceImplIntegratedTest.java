@@ -0,0 +1,262 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.dto.BookingOutputDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.UserCache;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@ExtendWith(SpringExtension.class)
+public class BookingServiceImplIntegratedTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingService service;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private UserService userService;
+
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    public void before() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        userCache.invalidateAll();
+        owner = userRepository.save(new User(null, "owner", "owner@email.com"));
+        booker = userRepository.save(new User(null, "booker", "booker@email.com"));
+        item = itemRepository.save(new Item(null, "item", "description", true, owner, null));
+    }
+
+    @Test
+    public void onlyOneConcurrentApprovalWins() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDateTime start = LocalDateTime.now().plusDays(1 + round);
+                Booking booking = bookingRepository.save(
+                        new Booking(null, start, start.plusHours(1), item, booker, Status.WAITING));
+
+                CountDownLatch startSignal = new CountDownLatch(1);
+                List<Future<Status>> results = new ArrayList<>();
+                for (int i = 0; i < THREADS; i++) {
+                    boolean approve = i % 2 == 0;
+                    Callable<Status> task = () -> {
+                        startSignal.await();
+                        return service.setBookingApproveStatus(booking.getId(), owner.getId(), approve).getStatus();
+                    };
+                    results.add(executor.submit(task));
+                }
+                startSignal.countDown();
+
+                List<Status> winners = new ArrayList<>();
+                for (Future<Status> result : results) {
+                    try {
+                        winners.add(result.get());
+                    } catch (ExecutionException e) {
+                        assertTrue(e.getCause() instanceof ConflictException
+                                || e.getCause() instanceof BadRequestException, e.getCause().toString());
+                    }
+                }
+
+                assertEquals(1, winners.size());
+                Booking stored = bookingRepository.findById(booking.getId()).orElseThrow();
+                assertEquals(winners.get(0), stored.getStatus());
+                assertEquals(1L, stored.getVersion());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void onlyOneConcurrentBookingOfAWindowWins() throws Exception {
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userRepository.save(new User(null, "booker" + i, "booker" + i + "@email.com")));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                LocalDateTime start = LocalDateTime.now().plusDays(1 + round);
+                BookingInputDto input = new BookingInputDto(item.getId(), start, start.plusHours(1));
+
+                CountDownLatch startSignal = new CountDownLatch(1);
+                List<Future<Booking>> results = new ArrayList<>();
+                for (User user : bookers) {
+                    results.add(executor.submit(() -> {
+                        startSignal.await();
+                        return service.addNewBooking(input, user.getId());
+                    }));
+                }
+                startSignal.countDown();
+
+                int winners = 0;
+                for (Future<Booking> result : results) {
+                    try {
+                        result.get();
+                        winners++;
+                    } catch (ExecutionException e) {
+                        assertTrue(e.getCause() instanceof ConflictException, e.getCause().toString());
+                    }
+                }
+                assertEquals(1, winners);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(ROUNDS, bookingRepository.count());
+    }
+
+    @Test
+    public void windowIsGivenBackWhenTheTransactionRollsBack() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertTrue(bookingIntervalIndex.tryAdd(item.getId(), start, start.plusHours(1), -1L, booker.getId()));
+            assertTrue(bookingIntervalIndex.hasOverlap(item.getId(), start, start.plusHours(1)));
+            status.setRollbackOnly();
+        });
+        assertFalse(bookingIntervalIndex.hasOverlap(item.getId(), start, start.plusHours(1)));
+    }
+
+    @Test
+    public void windowsOfADeletedBookerAreGivenBack() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        BookingInputDto input = new BookingInputDto(item.getId(), start, start.plusHours(1));
+        service.addNewBooking(input, booker.getId());
+
+        userService.deleteUserById(booker.getId());
+
+        User other = userRepository.save(new User(null, "other", "other@email.com"));
+        assertEquals(Status.WAITING, service.addNewBooking(input, other.getId()).getStatus());
+    }
+
+    @Test
+    public void windowTakenWhileTheBookerIsDeletedIsGivenBack() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        // stands for a booking that commits after the deleted rows were read
+        assertTrue(bookingIntervalIndex.tryAdd(item.getId(), start, start.plusHours(1), -1L, booker.getId()));
+
+        userService.deleteUserById(booker.getId());
+
+        assertFalse(bookingIntervalIndex.hasOverlap(item.getId(), start, start.plusHours(1)));
+    }
+
+    @Test
+    public void windowsStayWhenTheDeleteRollsBack() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        service.addNewBooking(new BookingInputDto(item.getId(), start, start.plusHours(1)), booker.getId());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.deleteUserById(booker.getId());
+            status.setRollbackOnly();
+        });
+
+        assertTrue(bookingIntervalIndex.hasOverlap(item.getId(), start, start.plusHours(1)));
+    }
+
+    @Test
+    public void bulkApprovalUpdatesOnlyOwnWaitingBookings() {
+        User stranger = userRepository.save(new User(null, "stranger", "stranger@email.com"));
+        Item strangerItem = itemRepository.save(new Item(null, "other", "description", true, stranger, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking waiting = bookingRepository.save(
+                new Booking(null, start, start.plusHours(1), item, booker, Status.WAITING));
+        Booking rejected = bookingRepository.save(
+                new Booking(null, start.plusHours(2), start.plusHours(3), item, booker, Status.REJECTED));
+        Booking foreign = bookingRepository.save(
+                new Booking(null, start, start.plusHours(1), strangerItem, booker, Status.WAITING));
+
+        List<BookingApprovalResultDto> results = service.setBookingsApproveStatus(
+                List.of(waiting.getId(), rejected.getId(), foreign.getId()), owner.getId(), true);
+
+        assertEquals(List.of(
+                new BookingApprovalResultDto(waiting.getId(), BookingApprovalResultDto.Result.APPROVED),
+                new BookingApprovalResultDto(rejected.getId(), BookingApprovalResultDto.Result.NOT_WAITING),
+                new BookingApprovalResultDto(foreign.getId(), BookingApprovalResultDto.Result.NOT_FOUND)
+        ), results);
+        assertEquals(Status.APPROVED, bookingRepository.findById(waiting.getId()).orElseThrow().getStatus());
+        assertEquals(Status.WAITING, bookingRepository.findById(foreign.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    public void bookingDetailIsLoadedWithOneSelect() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        Booking saved = bookingRepository.save(
+                new Booking(null, start, start.plusHours(1), item, booker, Status.WAITING));
+        // warm up the user cache
+        service.getUser(owner.getId());
+        service.getUser(booker.getId());
+
+        List<Booking> found = new ArrayList<>();
+        assertEquals(1L, countQueries(() -> found.add(service.getBookingInfo(saved.getId(), owner.getId()))));
+        assertEquals(1L, countQueries(() -> found.add(service.getBookingInfo(saved.getId(), booker.getId()))));
+
+        // everything the response needs is there after the session is gone
+        BookingOutputDto dto = BookingMapper.toBookingOutputDto(found.get(0));
+        assertEquals(item.getName(), dto.getItem().getName());
+        assertEquals(booker.getId(), dto.getBooker().getId());
+        assertEquals(owner, found.get(1).getItem().getOwner());
+    }
+
+    private long countQueries(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -10,23 +10,37 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import ru.practicum.shareit.TestUtil;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.dto.BookingOwnershipView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.ItemInfoCache;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchCache;
 import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.paging.KeysetCursor;
 import ru.practicum.shareit.paging.OffsetLimitPageable;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
+import java.sql.Statement;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.util.AssertionErrors.assertEquals;
@@ -56,6 +70,18 @@ public class BookingServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserCache userCache;
+
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+
+    @Mock
+    private ItemSearchCache itemSearchCache;
+
+    @Mock
+    private ItemInfoCache itemInfoCache;
+
     @Mock
     private Item item;
     @Mock
@@ -72,7 +98,10 @@ public class BookingServiceTest {
     @BeforeEach
     public void before() {
         when(bookingRepository.save(any())).thenAnswer(input -> input.getArguments()[0]);
+        when(bookingIntervalIndex.tryAdd(any(), any(), any(), any(), any())).thenReturn(true);
+        when(bookingRepository.updateStatusIfWaiting(eq(BOOKING_ID), any())).thenReturn(1);
         when(itemRepository.getItemOwner(eq(ITEM_ID))).thenReturn(owner);
+        when(userCache.findById(any())).thenAnswer(input -> userRepository.findById((Long) input.getArguments()[0]));
 
         TestUtil.setupItemWithRepo(item, ITEM_ID, "item", owner, itemRepository);
 
@@ -197,6 +226,34 @@ public class BookingServiceTest {
         assertEquals("ends not match", input.getEnd(), result.getEnd());
     }
 
+    @Test
+    public void throw_conflict_when_item_already_booked() {
+        when(bookingIntervalIndex.hasOverlap(eq(ITEM_ID), eq(START), eq(END))).thenReturn(true);
+        assertThrows(
+                ConflictException.class,
+                () -> underTest.addNewBooking(input, BOOKER_ID)
+        );
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    public void throw_conflict_when_window_taken_while_saving() {
+        when(bookingIntervalIndex.tryAdd(eq(ITEM_ID), eq(START), eq(END), any(), eq(BOOKER_ID))).thenReturn(false);
+        assertThrows(
+                ConflictException.class,
+                () -> underTest.addNewBooking(input, BOOKER_ID)
+        );
+        verify(itemSearchCache, never()).itemTouched(any());
+    }
+
+    @Test
+    public void indexed_when_added() {
+        Booking result = underTest.addNewBooking(input, BOOKER_ID);
+        verify(bookingIntervalIndex).tryAdd(eq(ITEM_ID), eq(START), eq(END), eq(result.getId()), eq(BOOKER_ID));
+        verify(itemSearchCache).itemTouched(eq(ITEM_ID));
+        verify(itemInfoCache).evictBookings(eq(ITEM_ID));
+    }
+
     @Test
     public void throw_not_found_when_no_such_user_on_approve() {
         assertThrows(
@@ -264,6 +321,115 @@ public class BookingServiceTest {
         verify(booking).setStatus(eq(Status.REJECTED));
     }
 
+    @Test
+    public void removed_from_index_when_rejected() {
+        underTest.setBookingApproveStatus(BOOKING_ID, OWNER_ID, false);
+        verify(bookingIntervalIndex).remove(eq(booking));
+        verify(itemSearchCache).itemTouched(eq(ITEM_ID));
+        verify(itemInfoCache).evictBookings(eq(ITEM_ID));
+    }
+
+    @Test
+    public void kept_in_index_when_approved() {
+        underTest.setBookingApproveStatus(BOOKING_ID, OWNER_ID, true);
+        verify(bookingIntervalIndex, never()).remove(any(Booking.class));
+    }
+
+    @Test
+    public void throw_conflict_when_status_changed_concurrently() {
+        when(bookingRepository.updateStatusIfWaiting(eq(BOOKING_ID), any())).thenReturn(0);
+        assertThrows(
+                ConflictException.class,
+                () -> underTest.setBookingApproveStatus(BOOKING_ID, OWNER_ID, true)
+        );
+        verify(booking, never()).setStatus(any());
+    }
+
+    @Test
+    public void conditional_update_when_approved() {
+        underTest.setBookingApproveStatus(BOOKING_ID, OWNER_ID, true);
+        verify(bookingRepository).updateStatusIfWaiting(eq(BOOKING_ID), eq(Status.APPROVED));
+    }
+
+    @Test
+    public void bulk_approve_reports_status_per_booking() {
+        BookingOwnershipView waiting = ownership(1L, OWNER_ID, Status.WAITING);
+        BookingOwnershipView approved = ownership(2L, OWNER_ID, Status.APPROVED);
+        BookingOwnershipView foreign = ownership(3L, TRESPASSER_ID, Status.WAITING);
+        BookingOwnershipView raced = ownership(4L, OWNER_ID, Status.WAITING);
+        when(bookingRepository.findOwnershipByIdIn(any())).thenReturn(List.of(waiting, approved, foreign, raced));
+        when(bookingRepository.updateStatusesIfWaiting(eq(List.of(1L, 4L)), eq(Status.APPROVED)))
+                .thenReturn(new int[]{1, 0});
+
+        List<BookingApprovalResultDto> results = underTest.setBookingsApproveStatus(
+                List.of(1L, 2L, 3L, 4L, 5L, 1L), OWNER_ID, true);
+
+        assertEquals("wrong results", List.of(
+                new BookingApprovalResultDto(1L, BookingApprovalResultDto.Result.APPROVED),
+                new BookingApprovalResultDto(2L, BookingApprovalResultDto.Result.NOT_WAITING),
+                new BookingApprovalResultDto(3L, BookingApprovalResultDto.Result.NOT_FOUND),
+                new BookingApprovalResultDto(4L, BookingApprovalResultDto.Result.CONFLICT),
+                new BookingApprovalResultDto(5L, BookingApprovalResultDto.Result.NOT_FOUND)
+        ), results);
+        verify(bookingIntervalIndex, never()).remove(any(BookingInterval.class));
+    }
+
+    @Test
+    public void bulk_reject_removes_from_index() {
+        BookingOwnershipView waiting = ownership(1L, OWNER_ID, Status.WAITING);
+        when(bookingRepository.findOwnershipByIdIn(any())).thenReturn(List.of(waiting));
+        when(bookingRepository.updateStatusesIfWaiting(eq(List.of(1L)), eq(Status.REJECTED)))
+                .thenReturn(new int[]{1});
+
+        List<BookingApprovalResultDto> results = underTest.setBookingsApproveStatus(List.of(1L), OWNER_ID, false);
+
+        assertEquals("wrong results",
+                List.of(new BookingApprovalResultDto(1L, BookingApprovalResultDto.Result.REJECTED)), results);
+        verify(bookingIntervalIndex).remove(eq(new BookingInterval(1L, ITEM_ID, START, END)));
+        verify(itemSearchCache).itemTouched(eq(ITEM_ID));
+        verify(itemInfoCache).evictBookings(eq(ITEM_ID));
+    }
+
+    @Test
+    public void bulk_approve_reads_back_bookings_with_unknown_update_count() {
+        BookingOwnershipView moved = ownership(1L, OWNER_ID, Status.WAITING);
+        BookingOwnershipView stayed = ownership(2L, OWNER_ID, Status.WAITING);
+        when(bookingRepository.findOwnershipByIdIn(any())).thenReturn(List.of(moved, stayed)).thenReturn(List.of(
+                ownership(1L, OWNER_ID, Status.APPROVED), ownership(2L, OWNER_ID, Status.REJECTED)));
+        when(bookingRepository.updateStatusesIfWaiting(eq(List.of(1L, 2L)), eq(Status.APPROVED)))
+                .thenReturn(new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO});
+
+        List<BookingApprovalResultDto> results = underTest.setBookingsApproveStatus(List.of(1L, 2L), OWNER_ID, true);
+
+        assertEquals("wrong results", List.of(
+                new BookingApprovalResultDto(1L, BookingApprovalResultDto.Result.APPROVED),
+                new BookingApprovalResultDto(2L, BookingApprovalResultDto.Result.CONFLICT)
+        ), results);
+    }
+
+    @Test
+    public void throw_bad_request_on_bulk_approve_of_empty_null_or_too_many_ids() {
+        List<Long> tooMany = new ArrayList<>();
+        for (long id = 0; id <= BookingServiceImpl.MAX_BULK_SIZE; id++) {
+            tooMany.add(id);
+        }
+        List<List<Long>> invalid = List.of(List.of(), Arrays.asList(BOOKING_ID, null), tooMany);
+        for (List<Long> ids : invalid) {
+            assertThrows(BadRequestException.class, () -> underTest.setBookingsApproveStatus(ids, OWNER_ID, true));
+        }
+        assertThrows(BadRequestException.class, () -> underTest.setBookingsApproveStatus(null, OWNER_ID, true));
+        verify(bookingRepository, never()).updateStatusesIfWaiting(any(), any());
+    }
+
+    @Test
+    public void throw_not_found_when_no_such_user_on_bulk_approve() {
+        when(userRepository.findById(eq(OWNER_ID))).thenReturn(Optional.empty());
+        assertThrows(
+                NotFoundException.class,
+                () -> underTest.setBookingsApproveStatus(List.of(BOOKING_ID), OWNER_ID, true)
+        );
+    }
+
     @Test
     public void saved_to_repo_when_approved() {
         underTest.setBookingApproveStatus(BOOKING_ID, OWNER_ID, true);
@@ -346,17 +512,38 @@ public class BookingServiceTest {
         verify(bookingRepository).findByBookerAndStatus(eq(booker), eq(Status.REJECTED), any());
     }
 
+    @Test
+    public void get_bookings_page_asks_repo_with_cursor() {
+        KeysetCursor cursor = new KeysetCursor(START, BOOKING_ID);
+        underTest.getBookingsAfter(BOOKER_ID, BookingState.PAST, cursor, 10);
+        verify(bookingRepository).findByBookerAfter(eq(booker), eq(BookingState.PAST), any(), eq(cursor), eq(10));
+    }
+
+    @Test
+    public void get_bookings_page_for_owner_asks_repo_with_cursor() {
+        underTest.getBookingsForOwnerAfter(OWNER_ID, BookingState.ALL, null, 5);
+        verify(bookingRepository).findByOwnerAfter(eq(owner), eq(BookingState.ALL), any(), isNull(), eq(5));
+    }
+
+    @Test
+    public void throw_bad_request_when_page_size_not_positive() {
+        assertThrows(
+                BadRequestException.class,
+                () -> underTest.getBookingsAfter(BOOKER_ID, BookingState.ALL, null, 0)
+        );
+    }
+
     @Test
     public void get_all_bookings_for_owner_asks_repo() {
         underTest.getAllBookingsForOwner(owner.getId(), BookingState.ALL, null, null);
-        verify(bookingRepository).findByOwner(eq(owner), any());
+        verify(bookingRepository).findByOwner(eq(owner.getId()), any());
     }
 
     @Test
     public void get_all_bookings_for_owner_asks_repo_without_paging() {
         underTest.getAllBookingsForOwner(owner.getId(), BookingState.ALL, null, null);
         ArgumentCaptor<OffsetLimitPageable> captor = ArgumentCaptor.forClass(OffsetLimitPageable.class);
-        verify(bookingRepository).findByOwner(eq(owner), captor.capture());
+        verify(bookingRepository).findByOwner(eq(owner.getId()), captor.capture());
         OffsetLimitPageable pageable = captor.getValue();
         assertEquals("wrong offset", 0L, pageable.getOffset());
         assertEquals("wrong page size", Integer.MAX_VALUE, pageable.getPageSize());
@@ -366,7 +553,7 @@ public class BookingServiceTest {
     public void get_all_bookings_for_owner_asks_repo_with_paging() {
         underTest.getAllBookingsForOwner(owner.getId(), BookingState.ALL, 3, 30);
         ArgumentCaptor<OffsetLimitPageable> captor = ArgumentCaptor.forClass(OffsetLimitPageable.class);
-        verify(bookingRepository).findByOwner(eq(owner), captor.capture());
+        verify(bookingRepository).findByOwner(eq(owner.getId()), captor.capture());
         OffsetLimitPageable pageable = captor.getValue();
         assertEquals("wrong offset", 3L, pageable.getOffset());
         assertEquals("wrong page size", 30, pageable.getPageSize());
@@ -375,30 +562,41 @@ public class BookingServiceTest {
     @Test
     public void get_current_bookings_for_owner_asks_repo() {
         underTest.getAllBookingsForOwner(owner.getId(), BookingState.CURRENT, null, null);
-        verify(bookingRepository).findCurrentByOwner(eq(owner), any());
+        verify(bookingRepository).findCurrentByOwner(eq(owner.getId()), any());
     }
 
     @Test
     public void get_past_bookings_for_owner_asks_repo() {
         underTest.getAllBookingsForOwner(owner.getId(), BookingState.PAST, null, null);
-        verify(bookingRepository).findByOwnerAndEndIsBefore(eq(owner), any(), any());
+        verify(bookingRepository).findByOwnerAndEndIsBefore(eq(owner.getId()), any(), any());
     }
 
     @Test
     public void get_future_bookings_for_owner_asks_repo() {
         underTest.getAllBookingsForOwner(owner.getId(), BookingState.FUTURE, null, null);
-        verify(bookingRepository).findByOwnerAndStartIsAfter(eq(owner), any(), any());
+        verify(bookingRepository).findByOwnerAndStartIsAfter(eq(owner.getId()), any(), any());
     }
 
     @Test
     public void get_waiting_bookings_for_owner_asks_repo() {
         underTest.getAllBookingsForOwner(owner.getId(), BookingState.WAITING, null, null);
-        verify(bookingRepository).findByOwnerAndStatus(eq(owner), eq(Status.WAITING), any());
+        verify(bookingRepository).findByOwnerAndStatus(eq(owner.getId()), eq(Status.WAITING), any());
     }
 
     @Test
     public void get_rejected_bookings_for_owner_asks_repo() {
         underTest.getAllBookingsForOwner(owner.getId(), BookingState.REJECTED, null, null);
-        verify(bookingRepository).findByOwnerAndStatus(eq(owner), eq(Status.REJECTED), any());
+        verify(bookingRepository).findByOwnerAndStatus(eq(owner.getId()), eq(Status.REJECTED), any());
+    }
+
+    private BookingOwnershipView ownership(Long id, Long ownerId, Status status) {
+        BookingOwnershipView view = mock(BookingOwnershipView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getItemId()).thenReturn(ITEM_ID);
+        when(view.getOwnerId()).thenReturn(ownerId);
+        when(view.getStatus()).thenReturn(status);
+        when(view.getStart()).thenReturn(START);
+        when(view.getEnd()).thenReturn(END);
+        return view;
     }
 }
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.exception;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 
 import javax.validation.ValidationException;
@@ -60,4 +61,12 @@ public class ErrorHandlerTest {
         );
         assertEquals("wrong message", "message", errorResponse.getError());
     }
+
+    @Test
+    public void handleOptimisticLockingFailureException() {
+        ErrorResponse errorResponse = underTest.handleOptimisticLockingFailureException(
+                new ObjectOptimisticLockingFailureException("Booking", 1L)
+        );
+        assertEquals("wrong message", "Entity has been changed by another request", errorResponse.getError());
+    }
 }
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.generator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "shareit.generator.anchor=2032-09-15T00:00",
+        "shareit.generator.users=200",
+        "shareit.generator.requests=50",
+        "shareit.generator.items=500",
+        "shareit.generator.bookings=5000",
+        "shareit.generator.comments=300",
+        "shareit.generator.batch-size=128"
+})
+@ActiveProfiles({"test", "generate"})
+@AutoConfigureTestDatabase
+@ExtendWith(SpringExtension.class)
+public class DataGeneratorTest {
+
+    @Autowired
+    private DataGenerator dataGenerator;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private UserService userService;
+
+    @Test
+    public void fillsTablesOnStart() {
+        assertEquals(200, count("users"));
+        assertEquals(50, count("requests"));
+        assertEquals(500, count("items"));
+        assertEquals(5000, count("bookings"));
+        assertEquals(300, count("comments"));
+    }
+
+    @Test
+    public void bookingsCarryItemOwnerAndNotOwnItems() {
+        assertEquals(0, count("bookings b join items i on i.id = b.item_id where b.owner_id <> i.owner_id"));
+        assertEquals(0, count("bookings where booker_id = owner_id"));
+        assertEquals(0, count("bookings where end_date <= start_date"));
+        assertEquals(0, count("bookings a join bookings b on b.item_id = a.item_id and b.id > a.id "
+                + "where a.status in ('WAITING', 'APPROVED') and b.status in ('WAITING', 'APPROVED') "
+                + "and a.start_date < b.end_date and b.start_date < a.end_date"));
+        assertEquals(0, count("comments c where not exists (select 1 from bookings b "
+                + "where b.item_id = c.item_id and b.booker_id = c.author_id)"));
+    }
+
+    @Test
+    public void sameSeedGivesSameData() {
+        List<String> before = fingerprint();
+        dataGenerator.generate();
+        assertEquals(before, fingerprint());
+    }
+
+    @Test
+    public void indexesDroppedForTheLoadAreBuiltAgain() {
+        assertEquals(12, count("information_schema.indexes where index_name like 'IX\\_%'"));
+        assertEquals("DESC", jdbcTemplate.queryForObject("select ordering_specification "
+                + "from information_schema.index_columns where index_name = 'IX_REQUESTS_CREATED'", String.class));
+        assertEquals(List.of("OWNER_ID", "STATUS", "START_DATE"), jdbcTemplate.queryForList("select column_name "
+                + "from information_schema.index_columns where index_name = 'IX_BOOKINGS_OWNER_STATUS_START' "
+                + "order by ordinal_position", String.class));
+    }
+
+    @Test
+    public void popularityIsSkewed() {
+        long topItem = jdbcTemplate.queryForObject(
+                "select count(*) from bookings where item_id = 1", Long.class);
+        long topOwner = jdbcTemplate.queryForObject(
+                "select count(*) from items where owner_id = 1", Long.class);
+        assertTrue(topItem > 5000 / 500 * 10, "item 1 has " + topItem + " bookings");
+        assertTrue(topOwner > 500 / 200 * 10, "user 1 owns " + topOwner + " items");
+    }
+
+    @Test
+    public void generatedDataIsServedAndNewRowsGetFreshIds() {
+        assertFalse(itemService.getItemsByKeyword("drill", 0, 10).isEmpty());
+        assertEquals(10, itemService.getItemsByUserId(1L, 0, 10).size());
+        UserDto created = userService.addUser(new UserDto(null, "new user", "new@email.com"));
+        userService.deleteUserById(created.getId());
+        assertEquals(201, created.getId());
+    }
+
+    @Test
+    public void zipfSamplerFavoursLowRanks() {
+        ZipfSampler sampler = new ZipfSampler(100, 1.0);
+        Random random = new Random(1);
+        int[] hits = new int[101];
+        for (int i = 0; i < 100_000; i++) {
+            hits[sampler.sample(random)]++;
+        }
+        assertEquals(0, hits[0]);
+        assertTrue(hits[1] > hits[2] && hits[2] > hits[10] && hits[10] > hits[100]);
+        // 1 / H(100) of the draws go to rank 1
+        assertEquals(100_000 / 5.187, hits[1], 1_000);
+    }
+
+    private long count(String from) {
+        return jdbcTemplate.queryForObject("select count(*) from " + from, Long.class);
+    }
+
+    private List<String> fingerprint() {
+        return jdbcTemplate.queryForList("select concat_ws(',', b.id, b.start_date, b.end_date, b.item_id, "
+                + "b.booker_id, b.status, i.name, i.owner_id, i.request_id) from bookings b "
+                + "join items i on i.id = b.item_id order by b.id", String.class);
+    }
+}
@@ -14,15 +14,21 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.SharerUserArgumentResolver;
+import ru.practicum.shareit.user.UserCache;
+import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -36,6 +42,9 @@ class ItemControllerTest {
     @Mock
     private ItemService service;
 
+    @Mock
+    private UserCache userCache;
+
     @InjectMocks
     private ItemController itemController;
 
@@ -50,7 +59,10 @@ class ItemControllerTest {
     void before() {
         mvc = MockMvcBuilders
                 .standaloneSetup(itemController)
+                .setCustomArgumentResolvers(new SharerUserArgumentResolver(userCache))
                 .build();
+        when(userCache.findById(any()))
+                .thenAnswer(input -> Optional.of(new User((Long) input.getArguments()[0], "user", "user@yandex.ru")));
 
         itemDto = new ItemDto(
                 1L,
@@ -156,6 +168,33 @@ class ItemControllerTest {
         verify(service).getItemsByKeyword(eq(keyword), any(), any());
     }
 
+    @Test
+    void getItemsByRelevance() throws Exception {
+        String keyword = "chainsaw";
+        when(service.getItemsByRelevance(eq(keyword), any(), any())).thenReturn(List.of(itemDto));
+
+        mvc.perform(get("/items/search?text=" + keyword + "&sort=relevance&from=0&size=20")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(itemDto.getId()), Long.class));
+
+        verify(service).getItemsByRelevance(eq(keyword), eq(0), eq(20));
+        verify(service, never()).getItemsByKeyword(any(), any(), any());
+    }
+
+    @Test
+    void suggestNames() throws Exception {
+        when(service.suggestNames(any(), any())).thenReturn(List.of("Chainsaw", "Chair"));
+
+        mvc.perform(get("/items/suggest?prefix=cha")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", is("Chainsaw")))
+                .andExpect(jsonPath("$[1]", is("Chair")));
+
+        verify(service).suggestNames(eq("cha"), eq(10));
+    }
+
     @Test
     void postComment() throws Exception {
         long commentId = 456L;
@@ -179,4 +218,22 @@ class ItemControllerTest {
 
         verify(service).postComment(eq(itemId), eq(userId), eq(commentDto));
     }
+
+    @Test
+    void getAvailability() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2032, 9, 1, 10, 0);
+        LocalDateTime to = from.plusDays(2);
+        when(service.getAvailability(anyLong(), any(), any()))
+                .thenReturn(List.of(new FreeSlotDto(from.plusDays(1), to)));
+
+        long itemId = 321L;
+        mvc.perform(get("/items/" + itemId + "/availability")
+                        .param("from", "2032-09-01T10:00:00")
+                        .param("to", "2032-09-03T10:00:00")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()", is(1)));
+
+        verify(service).getAvailability(eq(itemId), eq(from), eq(to));
+    }
 }
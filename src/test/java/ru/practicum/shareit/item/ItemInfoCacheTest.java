@@ -0,0 +1,127 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserDeletedEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+
+public class ItemInfoCacheTest {
+
+    private static final long ITEM_ID = 1L;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ItemInfoCache underTest = new ItemInfoCache(meterRegistry, 100, Duration.ofMinutes(10));
+    private final AtomicInteger infoLoads = new AtomicInteger();
+    private final AtomicInteger bookingLoads = new AtomicInteger();
+
+    @Test
+    public void info_is_loaded_once_until_evicted() {
+        underTest.getInfo(ITEM_ID, infoLoader());
+        underTest.getInfo(ITEM_ID, infoLoader());
+        assertEquals("wrong loads", 1, infoLoads.get());
+
+        underTest.evictBookings(ITEM_ID);
+        underTest.getInfo(ITEM_ID, infoLoader());
+        assertEquals("evicted by bookings", 1, infoLoads.get());
+
+        underTest.evictInfo(ITEM_ID);
+        underTest.getInfo(ITEM_ID, infoLoader());
+        assertEquals("not evicted", 2, infoLoads.get());
+    }
+
+    @Test
+    public void bookings_are_loaded_once_until_evicted() {
+        LocalDateTime later = LocalDateTime.now().plusDays(1);
+        underTest.getOwnerBookings(ITEM_ID, bookingLoader(later));
+        underTest.getOwnerBookings(ITEM_ID, bookingLoader(later));
+        assertEquals("wrong loads", 1, bookingLoads.get());
+
+        underTest.evictInfo(ITEM_ID);
+        underTest.getOwnerBookings(ITEM_ID, bookingLoader(later));
+        assertEquals("evicted by info", 1, bookingLoads.get());
+
+        underTest.evictBookings(ITEM_ID);
+        underTest.getOwnerBookings(ITEM_ID, bookingLoader(later));
+        assertEquals("not evicted", 2, bookingLoads.get());
+    }
+
+    @Test
+    public void bookings_are_reloaded_after_the_next_boundary() throws InterruptedException {
+        underTest.getOwnerBookings(ITEM_ID, bookingLoader(LocalDateTime.now().plusNanos(50_000_000)));
+        Thread.sleep(100);
+        underTest.getOwnerBookings(ITEM_ID, bookingLoader(null));
+        underTest.getOwnerBookings(ITEM_ID, bookingLoader(null));
+
+        assertEquals("wrong loads", 2, bookingLoads.get());
+    }
+
+    @Test
+    public void value_loaded_during_a_change_is_not_cached() {
+        underTest.getInfo(ITEM_ID, () -> {
+            infoLoads.incrementAndGet();
+            underTest.evictInfo(ITEM_ID);
+            return info();
+        });
+        underTest.getInfo(ITEM_ID, infoLoader());
+
+        assertEquals("wrong loads", 2, infoLoads.get());
+    }
+
+    @Test
+    public void deleted_user_evicts_only_the_parts_it_changed() {
+        LocalDateTime later = LocalDateTime.now().plusDays(1);
+        for (long itemId = 1; itemId <= 4; itemId++) {
+            underTest.getInfo(itemId, infoLoader());
+            underTest.getOwnerBookings(itemId, bookingLoader(later));
+        }
+
+        underTest.onUserDeleted(new UserDeletedEvent(7L, Set.of(1L), List.of(), Set.of(2L), Set.of(3L)));
+        for (long itemId = 1; itemId <= 4; itemId++) {
+            underTest.getInfo(itemId, infoLoader());
+            underTest.getOwnerBookings(itemId, bookingLoader(later));
+        }
+
+        assertEquals("wrong info loads", 6, infoLoads.get());
+        assertEquals("wrong booking loads", 6, bookingLoads.get());
+    }
+
+    @Test
+    public void hits_are_exported() {
+        underTest.getInfo(ITEM_ID, infoLoader());
+        underTest.getInfo(ITEM_ID, infoLoader());
+
+        assertEquals("wrong hits", 1.0,
+                meterRegistry.get("cache.gets").tag("cache", "itemInfo").tag("result", "hit")
+                        .functionCounter().count());
+    }
+
+    private Supplier<ItemInfoCache.ItemInfo> infoLoader() {
+        return () -> {
+            infoLoads.incrementAndGet();
+            return info();
+        };
+    }
+
+    private ItemInfoCache.ItemInfo info() {
+        return new ItemInfoCache.ItemInfo(
+                new ItemDto(ITEM_ID, "item", "desc", true, new ArrayList<>(), null, null, null), 2L);
+    }
+
+    private Supplier<ItemInfoCache.OwnerBookings> bookingLoader(LocalDateTime validUntil) {
+        return () -> {
+            bookingLoads.incrementAndGet();
+            return new ItemInfoCache.OwnerBookings(null, new ItemDto.ExtremumBookingDto(5L, 3L), validUntil);
+        };
+    }
+}
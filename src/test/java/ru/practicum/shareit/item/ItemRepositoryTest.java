@@ -100,18 +100,30 @@ public class ItemRepositoryTest {
     }
 
     @Test
-    void findByRequestId() {
+    void findByRequestIdIn() {
         User owner = createUser("owner");
-        ItemRequest itemRequest = createItemRequest("request1");
-        Item item = createItem("item1", owner);
-        item.setRequest(itemRequest);
+        ItemRequest itemRequest1 = createItemRequest("request1");
+        ItemRequest itemRequest2 = createItemRequest("request2");
+        ItemRequest itemRequest3 = createItemRequest("request3");
+        Item item1 = createItem("item1", owner);
+        item1.setRequest(itemRequest1);
+        Item item2 = createItem("item2", owner);
+        item2.setRequest(itemRequest2);
+        Item item3 = createItem("item3", owner);
+        item3.setRequest(itemRequest3);
+        Item item4 = createItem("item4", owner);
 
         em.persist(owner);
-        itemRequest = em.persist(itemRequest);
-        em.persist(item);
+        em.persist(itemRequest1);
+        em.persist(itemRequest2);
+        em.persist(itemRequest3);
+        em.persist(item1);
+        em.persist(item2);
+        em.persist(item3);
+        em.persist(item4);
 
-        List<Item> found = repository.findByRequestId(itemRequest.getId());
-        assertThat(found, hasItems(item));
+        List<Item> found = repository.findByRequestIdIn(List.of(itemRequest1.getId(), itemRequest2.getId()));
+        assertEquals(List.of(item1, item2), found);
     }
 
     private Item createItem(String name, User owner) {
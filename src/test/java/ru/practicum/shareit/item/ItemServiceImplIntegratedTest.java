@@ -1,5 +1,7 @@
 package ru.practicum.shareit.item;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -8,23 +10,40 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingService;
+import ru.practicum.shareit.booking.dto.BookingInputDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
-@SpringBootTest
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @AutoConfigureTestDatabase
 @ExtendWith(SpringExtension.class)
 public class ItemServiceImplIntegratedTest {
@@ -34,12 +53,52 @@ public class ItemServiceImplIntegratedTest {
     @Autowired
     private UserRepository userRepository;
     @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
     private ItemService service;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+    @Autowired
+    private ItemSearchCache itemSearchCache;
+    @Autowired
+    private ItemInfoCache itemInfoCache;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserCache userCache;
 
     @BeforeEach
     public void before() {
+        commentRepository.deleteAll();
+        bookingRepository.deleteAll();
         itemRepository.deleteAll();
         userRepository.deleteAll();
+        itemSearchIndex.rebuild();
+        itemSearchCache.invalidateAll();
+        itemInfoCache.invalidateAll();
+        userCache.invalidateAll();
+    }
+
+    @Test
+    public void searchFindsAddedAndChangedItems() {
+        User user = userRepository.save(UserMapper.toUser(makeUserDto("some@email.com", "Пётр Иванов")));
+        ItemDto drill = service.addNewItem(makeItemDto("Дрель", "Простая дрель"), user.getId());
+        service.addNewItem(makeItemDto("Отвертка", "Аккумуляторная отвертка"), user.getId());
+
+        List<ItemDto> found = new ArrayList<>(service.getItemsByKeyword("дРелЬ", null, null));
+        assertEquals(1, found.size());
+        assertEquals(drill.getId(), found.get(0).getId());
+
+        ItemDto unavailable = makeItemDto(null, null);
+        unavailable.setAvailable(false);
+        service.changeItem(drill.getId(), user.getId(), unavailable);
+
+        assertEquals(0, service.getItemsByKeyword("дрель", null, null).size());
+        assertEquals(1, service.getItemsByKeyword("аккУМУляторная", 0, 10).size());
     }
 
     @Test
@@ -76,6 +135,126 @@ public class ItemServiceImplIntegratedTest {
         verifyItem(itemDto3, items.get(2));
     }
 
+    @Test
+    public void getUserItemsWithBookingsAndComments() {
+        User owner = userRepository.save(UserMapper.toUser(makeUserDto("owner@email.com", "Владелец")));
+        User booker = userRepository.save(UserMapper.toUser(makeUserDto("booker@email.com", "Арендатор")));
+        Item item = itemRepository.save(ItemMapper.toItem(makeItemDto("Чесалка", "Чешет"), owner, null));
+        LocalDateTime now = LocalDateTime.now();
+        saveBooking(item, booker, now.minusDays(10), now.minusDays(9));
+        Booking last = saveBooking(item, booker, now.minusDays(5), now.minusDays(4));
+        Booking next = saveBooking(item, booker, now.plusDays(1), now.plusDays(2));
+        saveBooking(item, booker, now.plusDays(5), now.plusDays(6));
+        commentRepository.save(new Comment(null, "Отлично чешет", item, booker, now));
+
+        List<ItemDto> items = new ArrayList<>(service.getItemsByUserId(owner.getId(), null, null));
+
+        assertEquals(1, items.size());
+        ItemDto dto = items.get(0);
+        assertEquals(last.getId(), dto.getLastBooking().getId());
+        assertEquals(booker.getId(), dto.getLastBooking().getBookerId());
+        assertEquals(next.getId(), dto.getNextBooking().getId());
+        assertEquals(1, dto.getComments().size());
+        assertEquals("Арендатор", dto.getComments().get(0).getAuthorName());
+    }
+
+    @Test
+    public void getItemInfoIsServedFromCacheUntilBookingOrCommentChanges() {
+        User owner = userRepository.save(UserMapper.toUser(makeUserDto("owner@email.com", "Владелец")));
+        User booker = userRepository.save(UserMapper.toUser(makeUserDto("booker@email.com", "Арендатор")));
+        ItemDto item = service.addNewItem(makeItemDto("Чесалка", "Чешет"), owner.getId());
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThat(service.getItemInfo(item.getId(), owner.getId()).getNextBooking(), nullValue());
+        assertEquals(0L, countQueries(() -> service.getItemInfo(item.getId(), owner.getId())));
+        assertEquals(0L, countQueries(() -> service.getItemInfo(item.getId(), booker.getId())));
+
+        Booking next = bookingService.addNewBooking(
+                new BookingInputDto(item.getId(), now.plusDays(1), now.plusDays(2)), booker.getId());
+        ItemDto ownerView = service.getItemInfo(item.getId(), owner.getId());
+        assertEquals(next.getId(), ownerView.getNextBooking().getId());
+        assertThat(service.getItemInfo(item.getId(), booker.getId()).getNextBooking(), nullValue());
+
+        Booking past = saveBooking(itemRepository.findById(item.getId()).orElseThrow(), booker,
+                now.minusDays(2), now.minusDays(1));
+        commentRepository.save(new Comment(null, "Отлично чешет", itemRepository.findById(item.getId()).orElseThrow(),
+                booker, now));
+        assertThat(service.getItemInfo(item.getId(), owner.getId()).getComments(), empty());
+
+        service.postComment(item.getId(), booker.getId(), new CommentDto(null, "Еще раз чешет", null, null));
+        ItemDto afterComment = service.getItemInfo(item.getId(), owner.getId());
+        assertEquals(2, afterComment.getComments().size());
+
+        bookingService.setBookingApproveStatus(next.getId(), owner.getId(), true);
+        assertEquals(past.getId(), service.getItemInfo(item.getId(), owner.getId()).getLastBooking().getId());
+    }
+
+    @Test
+    public void getItemInfoMovesBookingsForwardWithTime() throws InterruptedException {
+        User owner = userRepository.save(UserMapper.toUser(makeUserDto("owner@email.com", "Владелец")));
+        User booker = userRepository.save(UserMapper.toUser(makeUserDto("booker@email.com", "Арендатор")));
+        Item item = itemRepository.save(ItemMapper.toItem(makeItemDto("Чесалка", "Чешет"), owner, null));
+        LocalDateTime now = LocalDateTime.now();
+        Booking soon = saveBooking(item, booker, now.plusNanos(300_000_000), now.plusDays(1));
+        Booking later = saveBooking(item, booker, now.plusDays(2), now.plusDays(3));
+
+        assertEquals(soon.getId(), service.getItemInfo(item.getId(), owner.getId()).getNextBooking().getId());
+        Thread.sleep(400);
+        assertEquals(later.getId(), service.getItemInfo(item.getId(), owner.getId()).getNextBooking().getId());
+    }
+
+    @Test
+    public void getUserItemsQueryCountDoesNotDependOnItemCount() {
+        User owner = userRepository.save(UserMapper.toUser(makeUserDto("owner@email.com", "Владелец")));
+        User booker = userRepository.save(UserMapper.toUser(makeUserDto("booker@email.com", "Арендатор")));
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < 30; i++) {
+            Item item = itemRepository.save(ItemMapper.toItem(makeItemDto("Вещь " + i, "Описание"), owner, null));
+            saveBooking(item, booker, now.minusDays(2), now.minusDays(1));
+            saveBooking(item, booker, now.plusDays(1), now.plusDays(2));
+            commentRepository.save(new Comment(null, "Комментарий", item, booker, now));
+        }
+
+        service.getItemsByUserId(owner.getId(), 0, 1); // warm up the user cache
+        long fewItemsQueries = countQueries(() -> service.getItemsByUserId(owner.getId(), 0, 2));
+        long manyItemsQueries = countQueries(() -> service.getItemsByUserId(owner.getId(), 0, 30));
+
+        assertEquals(fewItemsQueries, manyItemsQueries);
+        assertThat(manyItemsQueries, lessThanOrEqualTo(5L));
+    }
+
+    @Test
+    public void getItemInfoLoadsItemAndCommentsWithTwoSelects() {
+        User owner = userRepository.save(UserMapper.toUser(makeUserDto("owner@email.com", "Владелец")));
+        Item item = itemRepository.save(ItemMapper.toItem(makeItemDto("Дрель", "Простая дрель"), owner, null));
+        LocalDateTime now = LocalDateTime.now();
+        List<User> authors = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User author = userRepository.save(UserMapper.toUser(makeUserDto(i + "@email.com", "Автор " + i)));
+            commentRepository.save(new Comment(null, "Комментарий " + i, item, author, now));
+            authors.add(author);
+        }
+
+        List<ItemDto> found = new ArrayList<>();
+        // the item and then its comments with their authors, the owner is never loaded
+        assertEquals(2L, countQueries(() -> found.add(service.getItemInfo(item.getId(), authors.get(0).getId()))));
+
+        List<String> commentAuthors = new ArrayList<>();
+        found.get(0).getComments().forEach(comment -> commentAuthors.add(comment.getAuthorName()));
+        assertEquals(authors.stream().map(User::getName).collect(Collectors.toList()), commentAuthors);
+    }
+
+    private long countQueries(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Booking saveBooking(Item item, User booker, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.save(new Booking(null, start, end, item, booker, Status.APPROVED));
+    }
+
     private ItemDto makeItemDto(String name, String description) {
         return new ItemDto(null, name, description, true, null, null, null, null);
     }
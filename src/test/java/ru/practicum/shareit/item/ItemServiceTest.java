@@ -10,7 +10,10 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import ru.practicum.shareit.TestUtil;
+import ru.practicum.shareit.booking.BookingInterval;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.dto.ExtremumBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.exception.BadRequestException;
@@ -19,11 +22,18 @@ import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.comment.CommentRepository;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.model.Comment;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.SearchSort;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.ItemRequestSubscribers;
+import ru.practicum.shareit.requests.search.ItemRequestIndex;
 import ru.practicum.shareit.requests.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
@@ -32,6 +42,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Matchers.any;
@@ -56,11 +67,25 @@ public class ItemServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserCache userCache;
+    @Mock
     private CommentRepository commentRepository;
     @Mock
     private BookingRepository bookingRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemSearchCache itemSearchCache;
+    @Mock
+    private ItemInfoCache itemInfoCache;
+    @Mock
+    private ItemRequestIndex itemRequestIndex;
+    @Mock
+    private ItemRequestSubscribers itemRequestSubscribers;
 
     @Mock
     private User owner;
@@ -86,6 +111,13 @@ public class ItemServiceTest {
     public void before() {
         when(itemRepository.save(any())).thenAnswer(input -> input.getArguments()[0]);
         when(itemRequestRepository.findById(eq(REQUEST_ID))).thenReturn(Optional.of(request));
+        when(userCache.findById(any())).thenAnswer(input -> userRepository.findById((Long) input.getArguments()[0]));
+        when(itemSearchCache.get(any(), any(), any(), any(), any()))
+                .thenAnswer(input -> ((Supplier<?>) input.getArguments()[4]).get());
+        when(itemInfoCache.getInfo(any(), any()))
+                .thenAnswer(input -> ((Supplier<?>) input.getArguments()[1]).get());
+        when(itemInfoCache.getOwnerBookings(any(), any()))
+                .thenAnswer(input -> ((Supplier<?>) input.getArguments()[1]).get());
 
         TestUtil.setupUserWithRepo(owner, OWNER_ID, "owner", userRepository);
         TestUtil.setupUserWithRepo(requestor, REQUESTOR_ID, "requestor", userRepository);
@@ -240,18 +272,148 @@ public class ItemServiceTest {
 
         Item savedItem = captor.getValue();
         assertNull("unexpected item request", savedItem.getRequest());
+        verify(itemRequestSubscribers, never()).publish(any(), any());
+    }
+
+    @Test
+    public void requestor_is_notified_about_answer() {
+        input.setRequestId(REQUEST_ID);
+        underTest.addNewItem(input, OWNER_ID);
+
+        ArgumentCaptor<ItemDto> captor = ArgumentCaptor.forClass(ItemDto.class);
+        verify(itemRequestSubscribers).publish(eq(REQUESTOR_ID), captor.capture());
+        assertEquals("wrong item", input.getName(), captor.getValue().getName());
     }
 
     @Test
-    public void get_items_by_keyword_invokes_search() {
+    public void get_items_by_keyword_invokes_search_index() {
         underTest.getItemsByKeyword("text123", null, null);
-        verify(itemRepository).search(eq("text123"), any());
+        verify(itemSearchIndex).search(eq("text123"), eq(0L), eq(Integer.MAX_VALUE));
+        verify(itemRepository, never()).search(any(), any());
+    }
+
+    @Test
+    public void get_items_by_keyword_passes_paging_to_search_index() {
+        underTest.getItemsByKeyword("TEXT123a", 4, 2);
+        verify(itemSearchIndex).search(eq("TEXT123a"), eq(4L), eq(2));
+    }
+
+    @Test
+    public void get_items_by_keyword_with_wildcards_falls_back_to_repository() {
+        underTest.getItemsByKeyword("100%", null, null);
+        verify(itemRepository).search(eq("100%"), any());
+        verify(itemSearchIndex, never()).search(any(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void get_items_by_keyword_loads_found_items() {
+        when(itemSearchIndex.search(eq("item"), anyLong(), anyInt())).thenReturn(List.of(ITEM_ID));
+        when(itemRepository.findByIdInOrderById(eq(List.of(ITEM_ID)))).thenReturn(List.of(item));
+
+        Collection<ItemDto> result = underTest.getItemsByKeyword("item", null, null);
+
+        assertEquals("wrong result size", 1, result.size());
+    }
+
+    @Test
+    public void get_items_by_relevance_keeps_index_order() {
+        Item other = mock(Item.class);
+        TestUtil.setupItemWithRepo(other, 124L, "other", owner, itemRepository);
+        when(itemSearchIndex.searchByRelevance(eq("item"), eq(0L), eq(20))).thenReturn(List.of(124L, ITEM_ID));
+        when(itemRepository.findByIdInOrderById(any())).thenReturn(List.of(item, other));
+
+        List<ItemDto> result = new ArrayList<>(underTest.getItemsByRelevance("item", 0, 20));
+
+        assertEquals("wrong first", 124L, result.get(0).getId());
+        assertEquals("wrong second", ITEM_ID, result.get(1).getId());
+    }
+
+    @Test
+    public void get_items_by_relevance_with_wildcards_falls_back_to_repository() {
+        underTest.getItemsByRelevance("a_b", null, null);
+        verify(itemRepository).search(eq("a_b"), any());
+        verify(itemSearchIndex, never()).searchByRelevance(any(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void suggest_names_asks_search_index() {
+        when(itemSearchIndex.suggest(eq("dr"), eq(5))).thenReturn(List.of("drill"));
+
+        assertEquals("wrong names", List.of("drill"), underTest.suggestNames("dr", 5));
+    }
+
+    @Test
+    public void suggest_names_for_blank_prefix_is_empty() {
+        assertTrue("names suggested", underTest.suggestNames(" ", 5).isEmpty());
+        verify(itemSearchIndex, never()).suggest(any(), anyInt());
+    }
+
+    @Test
+    public void throw_bad_request_when_suggest_size_is_not_positive() {
+        assertThrows(
+                BadRequestException.class,
+                () -> underTest.suggestNames("dr", 0)
+        );
+    }
+
+    @Test
+    public void search_index_and_cache_are_updated_when_item_is_added() {
+        underTest.addNewItem(input, OWNER_ID);
+        verify(itemSearchIndex).index(any(Item.class));
+        verify(itemSearchCache).itemChanged(any(Item.class));
+    }
+
+    @Test
+    public void search_index_and_cache_are_updated_when_item_is_changed() {
+        when(itemRepository.getItemOwner(eq(ITEM_ID))).thenReturn(owner);
+        String oldName = item.getName();
+        String oldDescription = item.getDescription();
+        underTest.changeItem(ITEM_ID, OWNER_ID, input);
+        verify(itemSearchIndex).index(eq(item));
+        verify(itemSearchCache).itemChanged(eq(item), eq(oldName), eq(oldDescription));
+        verify(itemInfoCache).evictInfo(eq(ITEM_ID));
+    }
+
+    @Test
+    public void owner_gets_item_info_with_bookings() {
+        ExtremumBookingView next = mock(ExtremumBookingView.class);
+        when(next.getId()).thenReturn(7L);
+        when(next.getBookerId()).thenReturn(REQUESTOR_ID);
+        when(next.getIsLast()).thenReturn(false);
+        when(bookingRepository.findLastAndNextByItemIdIn(eq(List.of(ITEM_ID)), any())).thenReturn(List.of(next));
+
+        ItemDto result = underTest.getItemInfo(ITEM_ID, OWNER_ID);
+
+        assertEquals("wrong next booking", 7L, result.getNextBooking().getId());
+        assertNull("unexpected last booking", result.getLastBooking());
+        verify(bookingRepository).findNextBoundary(eq(ITEM_ID), any());
+    }
+
+    @Test
+    public void other_users_get_item_info_without_bookings() {
+        ItemDto result = underTest.getItemInfo(ITEM_ID, REQUESTOR_ID);
+
+        assertEquals("wrong id", ITEM_ID, result.getId());
+        assertNull("unexpected next booking", result.getNextBooking());
+        verify(itemInfoCache, never()).getOwnerBookings(any(), any());
+    }
+
+    @Test
+    public void throw_not_found_when_no_such_item_on_info() {
+        when(itemRepository.findById(eq(ITEM_ID))).thenReturn(Optional.empty());
+        assertThrows(
+                NotFoundException.class,
+                () -> underTest.getItemInfo(ITEM_ID, OWNER_ID)
+        );
     }
 
     @Test
-    public void get_items_by_keyword_invokes_search_with_lowercase() {
-        underTest.getItemsByKeyword("TEXT123a", null, null);
-        verify(itemRepository).search(eq("text123a"), any());
+    public void search_results_go_through_cache() {
+        underTest.getItemsByKeyword("text", 0, 10);
+        underTest.getItemsByRelevance("text", 0, 10);
+
+        verify(itemSearchCache).get(eq("text"), eq(0), eq(10), eq(SearchSort.ID), any());
+        verify(itemSearchCache).get(eq("text"), eq(0), eq(10), eq(SearchSort.RELEVANCE), any());
     }
 
     @Test
@@ -301,5 +463,64 @@ public class ItemServiceTest {
         Comment comment = captor.getValue();
 
         assertEquals("commentText is wrong", "commentText", comment.getText());
+        verify(itemSearchCache).itemTouched(eq(ITEM_ID));
+        verify(itemInfoCache).evictInfo(eq(ITEM_ID));
+    }
+
+    @Test
+    public void availability_is_complement_of_taken_windows() {
+        LocalDateTime from = LocalDateTime.of(2032, 9, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        List<BookingInterval> taken = List.of(
+                new BookingInterval(1L, ITEM_ID, from.minusDays(1), from.plusDays(1)),
+                new BookingInterval(2L, ITEM_ID, from.plusDays(3), from.plusDays(5)),
+                new BookingInterval(3L, ITEM_ID, from.plusDays(4), from.plusDays(6))
+        );
+        when(item.getAvailable()).thenReturn(true);
+        when(bookingIntervalIndex.findOverlapping(eq(ITEM_ID), eq(from), eq(to))).thenReturn(taken);
+
+        List<FreeSlotDto> slots = underTest.getAvailability(ITEM_ID, from, to);
+
+        assertEquals("wrong slots", List.of(
+                new FreeSlotDto(from.plusDays(1), from.plusDays(3)),
+                new FreeSlotDto(from.plusDays(6), to)
+        ), slots);
+    }
+
+    @Test
+    public void whole_range_is_free_without_bookings() {
+        LocalDateTime from = LocalDateTime.of(2032, 9, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10);
+        when(item.getAvailable()).thenReturn(true);
+        when(bookingIntervalIndex.findOverlapping(eq(ITEM_ID), eq(from), eq(to))).thenReturn(new ArrayList<>());
+
+        assertEquals("wrong slots", List.of(new FreeSlotDto(from, to)), underTest.getAvailability(ITEM_ID, from, to));
+    }
+
+    @Test
+    public void unavailable_item_has_no_free_slots() {
+        LocalDateTime from = LocalDateTime.of(2032, 9, 1, 0, 0);
+        when(item.getAvailable()).thenReturn(false);
+
+        assertTrue("slots found", underTest.getAvailability(ITEM_ID, from, from.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    public void throw_bad_request_when_availability_range_is_empty() {
+        LocalDateTime from = LocalDateTime.of(2032, 9, 1, 0, 0);
+        assertThrows(
+                BadRequestException.class,
+                () -> underTest.getAvailability(ITEM_ID, from, from)
+        );
+    }
+
+    @Test
+    public void throw_not_found_when_availability_of_absent_item() {
+        LocalDateTime from = LocalDateTime.of(2032, 9, 1, 0, 0);
+        when(itemRepository.findById(eq(ITEM_ID))).thenReturn(Optional.empty());
+        assertThrows(
+                NotFoundException.class,
+                () -> underTest.getAvailability(ITEM_ID, from, from.plusDays(1))
+        );
     }
 }
@@ -0,0 +1,119 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.paging.OffsetLimitPageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the trigram index with the LIKE query of the repository.
+ * Takes minutes, so it runs only on demand:
+ * mvn test -Dtest=ItemSearchBenchmarkTest -Dsearch.benchmark=true -DargLine=-Xmx3g
+ * [-Dsearch.benchmark.sizes=100000,1000000]
+ */
+@Slf4j
+@SpringBootTest
+@AutoConfigureTestDatabase
+@ExtendWith(SpringExtension.class)
+@EnabledIfSystemProperty(named = "search.benchmark", matches = "true")
+public class ItemSearchBenchmarkTest {
+
+    private static final String[] WORDS = {
+        "дрель", "отвёртка", "аккумуляторная", "клей", "момент", "пила", "лобзик", "набор", "ключей", "лестница",
+        "стремянка", "молоток", "перфоратор", "шуруповёрт", "рулетка", "уровень", "палатка", "спальник", "котелок",
+        "велосипед", "самокат", "коньки", "лыжи", "проектор", "колонка", "гитара", "удочка", "мангал", "шампуры"
+    };
+    private static final String[] QUERIES = {"дрель", "ОТВЁР", "ерфора", "гитара удочка", "нет такого"};
+    private static final int BATCH = 10_000;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemSearchIndex itemSearchIndex;
+
+    @Test
+    public void compare_with_like_query() {
+        String sizes = System.getProperty("search.benchmark.sizes", "100000,1000000");
+        for (String size : sizes.split(",")) {
+            run(Integer.parseInt(size.trim()));
+        }
+    }
+
+    private void run(int itemCount) {
+        fill(itemCount);
+        long started = System.nanoTime();
+        itemSearchIndex.rebuild();
+        log.info("{} items: index built in {} ms", itemCount, (System.nanoTime() - started) / 1_000_000);
+
+        Pageable page = OffsetLimitPageable.create(0, 20, Sort.by("id"));
+        for (String query : QUERIES) {
+            assertEquals(
+                    itemRepository.search(query.toLowerCase(), page).size(),
+                    itemSearchIndex.search(query, 0, 20).size()
+            );
+            double like = measure(() -> itemRepository.search(query.toLowerCase(), page));
+            double index = measure(() -> itemSearchIndex.search(query, 0, 20));
+            log.info("{} items, '{}': LIKE {} ms, index {} ms", itemCount, query,
+                    String.format("%.3f", like), String.format("%.3f", index));
+        }
+    }
+
+    private double measure(Supplier<?> search) {
+        for (int i = 0; i < ROUNDS; i++) {
+            search.get();
+        }
+        long started = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            search.get();
+        }
+        return (System.nanoTime() - started) / 1_000_000.0 / ROUNDS;
+    }
+
+    private void fill(int itemCount) {
+        jdbcTemplate.update("delete from comments");
+        jdbcTemplate.update("delete from bookings");
+        jdbcTemplate.update("delete from items");
+        jdbcTemplate.update("delete from users");
+        jdbcTemplate.update("insert into users (id, name, email) values (1, 'owner', 'owner@mail.ru')");
+
+        Random random = new Random(17);
+        List<Object[]> batch = new ArrayList<>(BATCH);
+        for (int id = 1; id <= itemCount; id++) {
+            batch.add(new Object[]{id, phrase(random, 2), phrase(random, 6), random.nextInt(5) != 0});
+            if (batch.size() == BATCH || id == itemCount) {
+                jdbcTemplate.batchUpdate(
+                        "insert into items (id, name, description, available, owner_id) values (?, ?, ?, ?, 1)",
+                        batch
+                );
+                batch.clear();
+            }
+        }
+    }
+
+    private String phrase(Random random, int maxWords) {
+        StringBuilder phrase = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        for (int i = random.nextInt(maxWords); i > 0; i--) {
+            phrase.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return phrase.toString();
+    }
+}
@@ -0,0 +1,195 @@
+package ru.practicum.shareit.item.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.UserDeletedEvent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+public class ItemSearchCacheTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ItemSearchCache underTest = new ItemSearchCache(meterRegistry, 100, Duration.ofMinutes(1));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void repeated_search_is_loaded_once_whatever_the_case() {
+        search("дрель", SearchSort.ID, 1L);
+        search("ДРЕЛЬ", SearchSort.ID, 1L);
+
+        assertEquals("wrong loads", 1, loads.get());
+    }
+
+    @Test
+    public void paging_and_sort_are_part_of_the_key() {
+        underTest.get("дрель", 0, 10, SearchSort.ID, loader(1L));
+        underTest.get("дрель", 10, 10, SearchSort.ID, loader(1L));
+        underTest.get("дрель", 0, 10, SearchSort.RELEVANCE, loader(1L));
+
+        assertEquals("wrong loads", 3, loads.get());
+    }
+
+    @Test
+    public void touched_item_drops_only_results_showing_it() {
+        search("дрель", SearchSort.ID, 1L, 2L);
+        search("пила", SearchSort.ID, 3L);
+
+        underTest.itemTouched(2L);
+        search("дрель", SearchSort.ID, 1L, 2L);
+        search("пила", SearchSort.ID, 3L);
+
+        assertEquals("wrong loads", 3, loads.get());
+    }
+
+    @Test
+    public void deleted_user_drops_only_results_showing_affected_items() {
+        search("дрель", SearchSort.ID, 1L);
+        search("пила", SearchSort.ID, 3L);
+        search("лестница", SearchSort.ID, 5L);
+        search("палатка", SearchSort.ID, 9L);
+
+        underTest.onUserDeleted(new UserDeletedEvent(7L, Set.of(1L), List.of(), Set.of(3L), Set.of(5L)));
+        search("дрель", SearchSort.ID);
+        search("пила", SearchSort.ID, 3L);
+        search("лестница", SearchSort.ID, 5L);
+        search("палатка", SearchSort.ID, 9L);
+
+        assertEquals("wrong loads", 7, loads.get());
+    }
+
+    @Test
+    public void changed_item_drops_results_it_now_matches() {
+        search("дрель", SearchSort.ID, 1L);
+        search("пила", SearchSort.ID, 3L);
+
+        underTest.itemChanged(new Item(7L, "Циркулярная пила", "Новая", true, null, null));
+        search("дрель", SearchSort.ID, 1L);
+        search("пила", SearchSort.ID, 3L, 7L);
+
+        assertEquals("wrong loads", 3, loads.get());
+    }
+
+    @Test
+    public void changed_item_drops_results_it_left() {
+        search("дрель", SearchSort.ID, 7L);
+        search("пила", SearchSort.ID, 3L);
+        search("др", SearchSort.ID, 7L);
+
+        underTest.itemChanged(new Item(7L, "Циркулярная пила", "Новая", true, null, null), "Дрель", "Старая");
+        search("дрель", SearchSort.ID);
+        search("пила", SearchSort.ID, 3L, 7L);
+        search("др", SearchSort.ID);
+
+        assertEquals("wrong loads", 6, loads.get());
+    }
+
+    @Test
+    public void results_the_changed_item_does_not_match_are_kept() {
+        search("дрель", SearchSort.ID, 1L);
+        search("ель", SearchSort.ID, 1L, 2L);
+        search("ел", SearchSort.ID, 1L, 2L);
+
+        underTest.itemChanged(new Item(7L, "Пила", "Новая", true, null, null), "Лобзик", "Старый");
+        search("дрель", SearchSort.ID, 1L);
+        search("ель", SearchSort.ID, 1L, 2L);
+        search("ел", SearchSort.ID, 1L, 2L);
+
+        assertEquals("wrong loads", 3, loads.get());
+    }
+
+    @Test
+    public void evicted_and_rejected_results_leave_no_reverse_keys() {
+        Long[] many = new Long[200];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = (long) i;
+        }
+        search("огромный", SearchSort.ID, many);
+        for (int i = 0; i < 300; i++) {
+            search("запрос " + i, SearchSort.ID, (long) i);
+        }
+        underTest.cleanUp();
+
+        assertEquals("reverse keys left", underTest.size(), underTest.trackedKeys());
+    }
+
+    @Test
+    public void wildcard_results_are_dropped_on_any_item_change() {
+        search("100%", SearchSort.ID, 1L);
+
+        underTest.itemChanged(new Item(7L, "Пила", "Новая", true, null, null));
+        search("100%", SearchSort.ID, 1L);
+
+        assertEquals("wrong loads", 2, loads.get());
+    }
+
+    @Test
+    public void result_loaded_during_a_change_is_not_cached() {
+        underTest.get("дрель", null, null, SearchSort.ID, () -> {
+            loads.incrementAndGet();
+            underTest.itemTouched(5L);
+            return items(1L);
+        });
+        search("дрель", SearchSort.ID, 1L);
+
+        assertEquals("wrong loads", 2, loads.get());
+    }
+
+    @Test
+    public void large_results_are_evicted_by_weight() {
+        Long[] many = new Long[60];
+        for (int i = 0; i < many.length; i++) {
+            many[i] = (long) i;
+        }
+        search("a", SearchSort.ID, many);
+        search("b", SearchSort.ID, many);
+        search("c", SearchSort.ID, many);
+        search("a", SearchSort.ID, many);
+        search("b", SearchSort.ID, many);
+        search("c", SearchSort.ID, many);
+
+        assertTrue("nothing evicted", loads.get() > 3);
+    }
+
+    @Test
+    public void hits_and_misses_are_exported() {
+        search("дрель", SearchSort.ID, 1L);
+        search("дрель", SearchSort.ID, 1L);
+
+        assertEquals("wrong hits", 1.0,
+                meterRegistry.get("cache.gets").tag("cache", "itemSearch").tag("result", "hit")
+                        .functionCounter().count());
+        assertEquals("wrong misses", 1.0,
+                meterRegistry.get("cache.gets").tag("cache", "itemSearch").tag("result", "miss")
+                        .functionCounter().count());
+    }
+
+    private void search(String text, SearchSort sort, Long... ids) {
+        underTest.get(text, null, null, sort, loader(ids));
+    }
+
+    private Supplier<List<ItemDto>> loader(Long... ids) {
+        return () -> {
+            loads.incrementAndGet();
+            return items(ids);
+        };
+    }
+
+    private List<ItemDto> items(Long... ids) {
+        List<ItemDto> items = new ArrayList<>();
+        for (Long id : ids) {
+            items.add(new ItemDto(id, "item " + id, "desc", true, new ArrayList<>(), null, null, null));
+        }
+        return items;
+    }
+}
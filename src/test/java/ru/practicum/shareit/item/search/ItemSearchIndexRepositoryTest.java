@@ -0,0 +1,67 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.paging.OffsetLimitPageable;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the index finds exactly what the LIKE query of the repository finds.
+ */
+@DataJpaTest
+@ExtendWith(SpringExtension.class)
+public class ItemSearchIndexRepositoryTest {
+
+    private static final String[] WORDS = {
+        "дрель", "Отвёртка", "аккумуляторная", "клей", "МОМЕНТ", "saw", "Drill", "ёлка", "ключ", "набор"
+    };
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ItemRepository repository;
+
+    @Test
+    void same_results_as_like_query() {
+        Random random = new Random(11);
+        User owner = em.persist(new User(null, "owner", "owner@mail.ru"));
+        for (int i = 0; i < 300; i++) {
+            em.persist(new Item(null, phrase(random), phrase(random), random.nextInt(4) != 0, owner, null));
+        }
+        em.flush();
+        ItemSearchIndex index = new ItemSearchIndex(repository);
+        index.rebuild();
+
+        String[] queries = {"д", "ОТВ", "отвёр", "ЁЛ", "тка акк", "ILL", "клей момент", "набор ", "xyz", "ная"};
+        for (String query : queries) {
+            List<Long> expected = repository
+                    .search(query.toLowerCase(), OffsetLimitPageable.unpaged(Sort.by("id")))
+                    .stream()
+                    .map(Item::getId)
+                    .collect(Collectors.toList());
+            assertEquals(expected, index.search(query, 0, Integer.MAX_VALUE), "query '" + query + "'");
+        }
+    }
+
+    private String phrase(Random random) {
+        StringBuilder phrase = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        for (int i = random.nextInt(3); i > 0; i--) {
+            phrase.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return phrase.toString();
+    }
+}
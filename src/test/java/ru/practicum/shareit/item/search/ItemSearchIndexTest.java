@@ -0,0 +1,233 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import ru.practicum.shareit.item.dto.ItemSearchView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.UserDeletedEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertFalse;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class ItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private ItemSearchIndex underTest;
+
+    @BeforeEach
+    public void before() {
+        List<ItemSearchView> stored = List.of(
+                new ItemSearchView(1L, "Дрель", "Простая дрель", true),
+                new ItemSearchView(2L, "Отвертка", "Аккумуляторная отвертка", true),
+                new ItemSearchView(3L, "Клей Момент", "Тюбик суперклея марки Момент", true),
+                new ItemSearchView(4L, "Дрель ударная", "Сломана", false)
+        );
+        when(itemRepository.findAllForSearch()).thenReturn(stored);
+        underTest.rebuild();
+    }
+
+    @Test
+    public void finds_by_any_case() {
+        assertEquals("wrong ids", List.of(1L), underTest.search("дРелЬ", 0, 10));
+    }
+
+    @Test
+    public void finds_by_part_of_word_in_description() {
+        assertEquals("wrong ids", List.of(2L), underTest.search("аккУМУляторная", 0, 10));
+        assertEquals("wrong ids", List.of(2L), underTest.search("оТверТ", 0, 10));
+        assertEquals("wrong ids", List.of(3L), underTest.search("перкле", 0, 10));
+    }
+
+    @Test
+    public void phrase_must_match_as_a_whole() {
+        assertEquals("wrong ids", List.of(3L), underTest.search("клей момент", 0, 10));
+        assertEquals("wrong ids", List.of(), underTest.search("момент клей", 0, 10));
+    }
+
+    @Test
+    public void query_without_words_is_matched_literally() {
+        assertEquals("wrong ids", List.of(3L), underTest.search(" суперклея ", 0, 10));
+        assertEquals("wrong ids", List.of(), underTest.search("!", 0, 10));
+    }
+
+    @Test
+    public void finds_by_upper_case_part_of_word() {
+        underTest.index(new Item(5L, "Отвёртка", "Крестовая", true, null, null));
+
+        assertEquals("wrong ids", List.of(5L), underTest.search("ОТВЁР", 0, 10));
+    }
+
+    @Test
+    public void short_queries_are_matched_without_trigrams() {
+        assertEquals("wrong ids", List.of(1L), underTest.search("ль", 0, 10));
+        assertEquals("wrong ids", List.of(3L), underTest.search("ме", 0, 10));
+    }
+
+    @Test
+    public void all_trigrams_present_is_not_enough() {
+        underTest.index(new Item(5L, "абвгд", "гдабв", true, null, null));
+
+        assertEquals("wrong ids", List.of(), underTest.search("абвгдабв", 0, 10));
+        assertEquals("wrong ids", List.of(5L), underTest.search("бвгд", 0, 10));
+    }
+
+    @Test
+    public void wildcards_are_not_supported() {
+        assertTrue("plain text", ItemSearchIndex.supports("дрель"));
+        assertFalse("percent", ItemSearchIndex.supports("100%"));
+        assertFalse("underscore", ItemSearchIndex.supports("a_b"));
+        assertFalse("escape", ItemSearchIndex.supports("a\\b"));
+    }
+
+    @Test
+    public void unavailable_items_are_not_found() {
+        assertEquals("wrong ids", List.of(1L), underTest.search("дрель", 0, 10));
+    }
+
+    @Test
+    public void results_are_paged_in_id_order() {
+        underTest.index(new Item(5L, "Дрель", "Еще одна", true, null, null));
+        underTest.index(new Item(6L, "Дрель", "И еще одна", true, null, null));
+
+        assertEquals("wrong first page", List.of(1L, 5L), underTest.search("дрель", 0, 2));
+        assertEquals("wrong second page", List.of(6L), underTest.search("дрель", 2, 2));
+    }
+
+    @Test
+    public void reindexed_item_is_found_by_new_text_only() {
+        underTest.index(new Item(1L, "Перфоратор", "Мощный", true, null, null));
+
+        assertEquals("found by old text", List.of(), underTest.search("дрель", 0, 10));
+        assertEquals("not found by new text", List.of(1L), underTest.search("перфоратор", 0, 10));
+    }
+
+    @Test
+    public void removed_item_is_not_found() {
+        underTest.remove(List.of(1L));
+
+        assertEquals("found removed", List.of(), underTest.search("дрель", 0, 10));
+    }
+
+    @Test
+    public void items_gone_with_deleted_user_are_not_found() {
+        underTest.onUserDeleted(new UserDeletedEvent(7L, Set.of(1L), List.of(), Set.of(), Set.of()));
+
+        assertEquals("found deleted", List.of(), underTest.search("дрель", 0, 10));
+    }
+
+    @Test
+    public void item_made_available_becomes_searchable() {
+        underTest.index(new Item(4L, "Дрель ударная", "Починена", true, null, null));
+
+        assertEquals("wrong ids", List.of(1L, 4L), underTest.search("дрель", 0, 10));
+    }
+
+    @Test
+    public void item_made_unavailable_disappears() {
+        underTest.index(new Item(1L, "Дрель", "Простая дрель", false, null, null));
+
+        assertEquals("wrong ids", List.of(), underTest.search("дрель", 0, 10));
+    }
+
+    @Test
+    public void suggests_names_of_available_items_by_any_case_prefix() {
+        underTest.index(new Item(5L, "Дрель", "Еще одна", true, null, null));
+        underTest.index(new Item(6L, "Дрова", "Березовые", true, null, null));
+
+        assertEquals("wrong names", List.of("Дрель", "Дрова"), underTest.suggest("дР", 10));
+    }
+
+    @Test
+    public void suggestions_follow_item_changes() {
+        underTest.index(new Item(1L, "Перфоратор", "Простая дрель", true, null, null));
+        underTest.index(new Item(4L, "Дрель ударная", "Починена", true, null, null));
+
+        assertEquals("wrong names", List.of("Дрель ударная"), underTest.suggest("дрель", 10));
+
+        underTest.index(new Item(4L, "Дрель ударная", "Снова сломана", false, null, null));
+
+        assertEquals("wrong names", List.of(), underTest.suggest("дрель", 10));
+    }
+
+    @Test
+    public void name_hits_rank_above_description_hits() {
+        underTest.index(new Item(5L, "Набор", "Дрель, дрель и еще раз дрель", true, null, null));
+        underTest.index(new Item(6L, "Дрель дрель", "Две", true, null, null));
+
+        assertEquals("wrong order", List.of(6L, 1L, 5L), underTest.searchByRelevance("дрель", 0, 10));
+    }
+
+    @Test
+    public void more_hits_in_the_same_field_rank_higher() {
+        underTest.index(new Item(5L, "Набор", "Дрель и дрель", true, null, null));
+        underTest.index(new Item(6L, "Набор", "Дрель", true, null, null));
+
+        assertEquals("wrong order", List.of(1L, 5L, 6L), underTest.searchByRelevance("дрель", 0, 10));
+    }
+
+    @Test
+    public void relevance_pages_keep_order_and_prefer_earlier_items_on_ties() {
+        for (long id = 10; id < 20; id++) {
+            underTest.index(new Item(id, "Пила", "Пила", true, null, null));
+        }
+        underTest.index(new Item(20L, "Пила пила", "Пила", true, null, null));
+
+        assertEquals("wrong first page", List.of(20L, 10L, 11L), underTest.searchByRelevance("пила", 0, 3));
+        assertEquals("wrong second page", List.of(12L, 13L, 14L), underTest.searchByRelevance("пила", 3, 3));
+        assertEquals("wrong last page", List.of(19L), underTest.searchByRelevance("пила", 10, 3));
+        assertEquals("wrong empty page", List.of(), underTest.searchByRelevance("пила", 11, 3));
+    }
+
+    @Test
+    public void relevance_top_matches_full_sort_on_random_data() {
+        Random random = new Random(5);
+        String[] words = {"пила", "дрель", "ключ", "набор"};
+        List<Item> items = new ArrayList<>();
+        for (long id = 100; id < 600; id++) {
+            StringBuilder name = new StringBuilder();
+            StringBuilder description = new StringBuilder();
+            for (int i = random.nextInt(3); i >= 0; i--) name.append(words[random.nextInt(words.length)]).append(' ');
+            for (int i = random.nextInt(6); i >= 0; i--) description.append(words[random.nextInt(words.length)]).append(' ');
+            Item item = new Item(id, name.toString(), description.toString(), true, null, null);
+            items.add(item);
+            underTest.index(item);
+        }
+
+        List<Long> expected = items.stream()
+                .filter(item -> count(item.getName(), "пила") + count(item.getDescription(), "пила") > 0)
+                .sorted(Comparator
+                        .comparingLong((Item item) ->
+                                -(10L * count(item.getName(), "пила") + count(item.getDescription(), "пила")))
+                        .thenComparing(Item::getId))
+                .map(Item::getId)
+                .skip(7)
+                .limit(25)
+                .collect(Collectors.toList());
+        assertEquals("wrong top", expected, underTest.searchByRelevance("ПИЛА", 7, 25));
+    }
+
+    private int count(String text, String word) {
+        return text.split(word, -1).length - 1;
+    }
+}
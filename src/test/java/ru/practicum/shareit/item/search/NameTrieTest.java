@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+
+public class NameTrieTest {
+
+    private final NameTrie underTest = new NameTrie();
+
+    @Test
+    public void most_common_names_go_first() {
+        underTest.add("ДРЕЛЬ", "Дрель");
+        underTest.add("ДРЕЛЬ УДАРНАЯ", "Дрель ударная");
+        underTest.add("ДРЕЛЬ УДАРНАЯ", "Дрель ударная");
+        underTest.add("ДРОВА", "Дрова");
+
+        assertEquals("wrong names", List.of("Дрель ударная", "Дрель", "Дрова"), underTest.top("ДР", 10));
+        assertEquals("wrong limited names", List.of("Дрель ударная"), underTest.top("ДР", 1));
+    }
+
+    @Test
+    public void equal_counts_go_by_name() {
+        underTest.add("ПИЛА", "Пила");
+        underTest.add("ПАЛАТКА", "Палатка");
+        underTest.add("ПЕРФОРАТОР", "Перфоратор");
+
+        assertEquals("wrong names", List.of("Палатка", "Перфоратор", "Пила"), underTest.top("П", 10));
+    }
+
+    @Test
+    public void unknown_prefix_gives_nothing() {
+        underTest.add("ПИЛА", "Пила");
+
+        assertEquals("wrong names", List.of(), underTest.top("ПО", 10));
+        assertEquals("wrong names", List.of(), underTest.top("ПИЛАА", 10));
+    }
+
+    @Test
+    public void removed_names_are_not_suggested() {
+        underTest.add("ПИЛА", "Пила");
+        underTest.add("ПИЛА", "Пила");
+        underTest.add("ПИЛКА", "Пилка");
+
+        underTest.remove("ПИЛА");
+        underTest.remove("ПИЛКА");
+        assertEquals("wrong names", List.of("Пила"), underTest.top("ПИ", 10));
+
+        underTest.remove("ПИЛА");
+        assertEquals("wrong names", List.of(), underTest.top("", 10));
+    }
+
+    @Test
+    public void matches_full_sort_on_random_data() {
+        Random random = new Random(9);
+        Map<String, Integer> counts = new HashMap<>();
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            String key = randomKey(random);
+            underTest.add(key, key);
+            added.add(key);
+            counts.merge(key, 1, Integer::sum);
+        }
+        for (int i = 0; i < 1000; i++) {
+            String key = added.remove(random.nextInt(added.size()));
+            underTest.remove(key);
+            counts.merge(key, -1, Integer::sum);
+        }
+
+        for (String prefix : List.of("", "А", "Б", "АБ", "ВВА")) {
+            List<String> expected = counts.entrySet().stream()
+                    .filter(entry -> entry.getValue() > 0 && entry.getKey().startsWith(prefix))
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey(Comparator.naturalOrder())))
+                    .map(Map.Entry::getKey)
+                    .limit(15)
+                    .collect(Collectors.toList());
+            assertEquals("wrong names for '" + prefix + "'", expected, underTest.top(prefix, 15));
+        }
+    }
+
+    private String randomKey(Random random) {
+        StringBuilder key = new StringBuilder();
+        for (int i = 1 + random.nextInt(4); i > 0; i--) {
+            key.append((char) ('А' + random.nextInt(3)));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,63 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertFalse;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+public class PostingListTest {
+
+    private final PostingList underTest = new PostingList();
+
+    @Test
+    public void keeps_ids_sorted_and_unique() {
+        underTest.add(5);
+        underTest.add(1);
+        underTest.add(9);
+        underTest.add(5);
+
+        assertEquals("wrong size", 3, underTest.size());
+        assertEquals("wrong first", 1L, underTest.get(0));
+        assertEquals("wrong second", 5L, underTest.get(1));
+        assertEquals("wrong third", 9L, underTest.get(2));
+    }
+
+    @Test
+    public void removes_ids() {
+        underTest.add(1);
+        underTest.add(2);
+
+        underTest.remove(1);
+        underTest.remove(3);
+
+        assertFalse("removed id found", underTest.contains(1));
+        assertTrue("kept id missed", underTest.contains(2));
+        assertEquals("wrong size", 1, underTest.size());
+    }
+
+    @Test
+    public void matches_tree_set_on_random_data() {
+        Random random = new Random(3);
+        TreeSet<Long> expected = new TreeSet<>();
+        for (int i = 0; i < 5000; i++) {
+            long id = random.nextInt(1000);
+            if (random.nextInt(3) == 0) {
+                expected.remove(id);
+                underTest.remove(id);
+            } else {
+                expected.add(id);
+                underTest.add(id);
+            }
+        }
+
+        assertEquals("wrong size", expected.size(), underTest.size());
+        int i = 0;
+        for (Long id : expected) {
+            assertEquals("wrong id at " + i, id, underTest.get(i++));
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingState;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@AutoConfigureTestDatabase
+@ExtendWith(SpringExtension.class)
+public class MetricsIntegratedTest {
+
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private User owner;
+
+    @BeforeEach
+    public void before() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+        meterRegistry.clear();
+        owner = userRepository.save(new User(null, "owner", "owner@email.com"));
+        User booker = userRepository.save(new User(null, "booker", "booker@email.com"));
+        Item item = itemRepository.save(new Item(null, "Дрель", "Простая дрель", true, owner, null));
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        bookingRepository.save(new Booking(null, start, start.plusDays(1), item, booker, Status.WAITING));
+    }
+
+    @Test
+    public void ownerListingIsTimedWithItsStateDownToTheRepository() throws Exception {
+        mvc.perform(get("/bookings/owner").param("state", "WAITING").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk());
+
+        Timer request = meterRegistry.get("http.server.requests")
+                .tags("uri", "/bookings/owner", "state", "WAITING", "outcome", "SUCCESS").timer();
+        assertEquals(1, request.count());
+        Timer query = meterRegistry.get(RepositoryTimingInterceptor.METRIC)
+                .tags("repository", "BookingRepository", "method", "findByOwnerAndStatus", "state", "WAITING",
+                        "outcome", "SUCCESS").timer();
+        assertEquals(1, query.count());
+    }
+
+    @Test
+    public void unknownStateIsTaggedAsInvalid() throws Exception {
+        mvc.perform(get("/bookings/owner").param("state", "UNSUPPORTED_STATUS")
+                        .header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isBadRequest());
+
+        assertNotNull(meterRegistry.get("http.server.requests")
+                .tags("uri", "/bookings/owner", "state", "INVALID", "outcome", "CLIENT_ERROR").timer());
+    }
+
+    @Test
+    public void customFragmentsAndFailuresAreTimed() {
+        bookingRepository.findByOwnerAfter(owner, BookingState.CURRENT, LocalDateTime.now(), null, 10);
+        assertThrows(RuntimeException.class,
+                () -> userRepository.save(new User(null, "copy", "owner@email.com")));
+
+        assertEquals(1, meterRegistry.get(RepositoryTimingInterceptor.METRIC)
+                .tags("method", "findByOwnerAfter", "state", "CURRENT").timer().count());
+        assertEquals(1, meterRegistry.get(RepositoryTimingInterceptor.METRIC)
+                .tags("repository", "UserRepository", "method", "save", "state", "none", "outcome", "ERROR")
+                // recorded before the exception is translated
+                .tag("exception", "PersistenceException")
+                .timer().count());
+    }
+
+    @Test
+    public void timersAreReusedAndRegisteredAgainAfterRemoval() {
+        userRepository.findById(owner.getId());
+        userRepository.findById(owner.getId());
+        Timer timer = meterRegistry.get(RepositoryTimingInterceptor.METRIC)
+                .tags("repository", "UserRepository", "method", "findById").timer();
+        assertEquals(2, timer.count());
+
+        meterRegistry.clear();
+        userRepository.findById(owner.getId());
+
+        assertEquals(1, meterRegistry.get(RepositoryTimingInterceptor.METRIC)
+                .tags("repository", "UserRepository", "method", "findById").timer().count());
+    }
+
+    @Test
+    public void timersArePublishedAsPrometheusHistograms() throws Exception {
+        mvc.perform(get("/bookings/owner").param("state", "WAITING").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk());
+
+        mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket{")))
+                .andExpect(content().string(containsString("state=\"WAITING\"")))
+                .andExpect(content().string(containsString(
+                        "shareit_repository_invocations_seconds_bucket{exception=\"none\",method=\"findByOwnerAndStatus\","
+                                + "outcome=\"SUCCESS\",repository=\"BookingRepository\",state=\"WAITING\",le=")));
+    }
+}
@@ -0,0 +1,31 @@
+package ru.practicum.shareit.paging;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.exception.BadRequestException;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeysetCursorTest {
+
+    @Test
+    public void encoded_cursor_decodes_back() {
+        KeysetCursor cursor = new KeysetCursor(LocalDateTime.of(2032, 9, 15, 9, 19, 7, 123000000), 42L);
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    public void empty_cursor_means_first_page() {
+        assertNull(KeysetCursor.decode(""));
+        assertNull(KeysetCursor.decode(null));
+    }
+
+    @Test
+    public void garbage_cursor_is_bad_request() {
+        assertThrows(
+                BadRequestException.class,
+                () -> KeysetCursor.decode("not a cursor")
+        );
+    }
+}
@@ -14,12 +14,18 @@ import org.mockito.quality.Strictness;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
+import ru.practicum.shareit.user.SharerUserArgumentResolver;
+import ru.practicum.shareit.user.UserCache;
+import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
@@ -29,6 +35,7 @@ import static org.springframework.test.util.AssertionErrors.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,6 +45,9 @@ class ItemRequestControllerTest {
     @Mock
     private ItemRequestService service;
 
+    @Mock
+    private UserCache userCache;
+
     @InjectMocks
     private ItemRequestController controller;
 
@@ -52,7 +62,10 @@ class ItemRequestControllerTest {
     void before() {
         mvc = MockMvcBuilders
                 .standaloneSetup(controller)
+                .setCustomArgumentResolvers(new SharerUserArgumentResolver(userCache))
                 .build();
+        when(userCache.findById(any()))
+                .thenAnswer(input -> Optional.of(new User((Long) input.getArguments()[0], "user", "user@yandex.ru")));
 
         dto = new ItemRequestDto(
                 1L,
@@ -89,7 +102,7 @@ class ItemRequestControllerTest {
         List<ItemRequestDto> dtos = new ArrayList<>();
         dtos.add(dto);
         long userId = 123L;
-        when(service.getByUserId(anyLong())).thenReturn(dtos);
+        when(service.getByUserId(anyLong(), any(), any())).thenReturn(dtos);
 
         mvc.perform(get("/requests")
                         .header("X-Sharer-User-Id", userId)
@@ -98,7 +111,22 @@ class ItemRequestControllerTest {
                         .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk());
 
-        verify(service).getByUserId(eq(userId));
+        verify(service).getByUserId(eq(userId), isNull(), isNull());
+    }
+
+    @Test
+    void getByUserIdWithPaging() throws Exception {
+        long userId = 123L;
+        when(service.getByUserId(anyLong(), any(), any())).thenReturn(List.of(dto));
+
+        mvc.perform(get("/requests?from=2&size=5")
+                        .header("X-Sharer-User-Id", userId)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        verify(service).getByUserId(eq(userId), eq(2), eq(5));
     }
 
     @Test
@@ -135,6 +163,37 @@ class ItemRequestControllerTest {
         verify(service).getAll(eq(userId), eq(1), eq(10));
     }
 
+    @Test
+    void getSuggestions() throws Exception {
+        long userId = 123L;
+        long itemRequestId = 321L;
+        ItemDto item = new ItemDto(5L, "Бензопила", "Пилит", true, null, null, null, null);
+        when(service.getSuggestions(anyLong(), anyLong())).thenReturn(List.of(item));
+
+        mvc.perform(get("/requests/" + itemRequestId + "/suggestions")
+                        .header("X-Sharer-User-Id", userId)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(item.getId()), Long.class))
+                .andExpect(jsonPath("$[0].name", is(item.getName())));
+
+        verify(service).getSuggestions(eq(itemRequestId), eq(userId));
+    }
+
+    @Test
+    void stream() throws Exception {
+        long userId = 123L;
+        when(service.subscribe(anyLong())).thenReturn(new SseEmitter());
+
+        mvc.perform(get("/requests/stream")
+                        .header("X-Sharer-User-Id", userId)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(service).subscribe(eq(userId));
+    }
+
     @Test
     void getById() throws Exception {
         when(service.getById(anyLong(), anyLong())).thenReturn(dto);
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.requests;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import ru.practicum.shareit.paging.OffsetLimitPageable;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@ExtendWith(SpringExtension.class)
+public class ItemRequestRepositoryTest {
+
+    @SuppressWarnings("SpringJavaInjectionPointsAutowiringInspection")
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private ItemRequestRepository repository;
+
+    @Test
+    public void findByRequestorIdPagesAndSortsInQuery() {
+        User requestor = em.persist(createUser("requestor"));
+        User other = em.persist(createUser("other"));
+        ItemRequest request1 = em.persist(createItemRequest("request1", requestor));
+        em.persist(createItemRequest("foreign", other));
+        ItemRequest request2 = em.persist(createItemRequest("request2", requestor));
+        ItemRequest request3 = em.persist(createItemRequest("request3", requestor));
+        Sort byId = Sort.by(Sort.Direction.ASC, "id");
+
+        assertEquals(List.of(request1, request2, request3),
+                repository.findByRequestorId(requestor.getId(), OffsetLimitPageable.create(null, null, byId)));
+        assertEquals(List.of(request2),
+                repository.findByRequestorId(requestor.getId(), OffsetLimitPageable.create(1, 1, byId)));
+    }
+
+    @Test
+    public void findByRequestorNotSkipsOwnRequests() {
+        User requestor = em.persist(createUser("requestor"));
+        User other = em.persist(createUser("other"));
+        em.persist(createItemRequest("own", requestor));
+        ItemRequest foreign = em.persist(createItemRequest("foreign", other));
+
+        assertEquals(List.of(foreign), repository.findByRequestorNot(requestor, OffsetLimitPageable.unpaged()));
+    }
+
+    private User createUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setEmail(name + "@yandex.ru");
+        return user;
+    }
+
+    private ItemRequest createItemRequest(String description, User requestor) {
+        return new ItemRequest(null, description, requestor, ZonedDateTime.now());
+    }
+}
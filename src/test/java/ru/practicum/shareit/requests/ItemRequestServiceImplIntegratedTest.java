@@ -0,0 +1,183 @@
+package ru.practicum.shareit.requests;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.paging.OffsetLimitPageable;
+import ru.practicum.shareit.requests.dto.ItemRequestDto;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.search.ItemRequestIndex;
+import ru.practicum.shareit.requests.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.UserCache;
+import ru.practicum.shareit.user.UserRepository;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase
+@AutoConfigureMockMvc
+@ExtendWith(SpringExtension.class)
+public class ItemRequestServiceImplIntegratedTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserCache userCache;
+    @Autowired
+    private ItemRequestService service;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private ItemRequestIndex itemRequestIndex;
+    @Autowired
+    private ItemRequestSubscribers itemRequestSubscribers;
+    @Autowired
+    private MockMvc mvc;
+
+    private User requestor;
+    private User answerer;
+
+    @BeforeEach
+    public void before() {
+        itemRepository.deleteAll();
+        itemRequestRepository.deleteAll();
+        userRepository.deleteAll();
+        userCache.invalidateAll();
+        requestor = userRepository.save(new User(null, "requestor", "requestor@email.com"));
+        answerer = userRepository.save(new User(null, "answerer", "answerer@email.com"));
+        for (int i = 0; i < 20; i++) {
+            ItemRequest request = itemRequestRepository.save(
+                    new ItemRequest(null, "Нужна вещь " + i, requestor, ZonedDateTime.now()));
+            for (int j = 0; j < i % 3; j++) {
+                itemRepository.save(new Item(null, "Вещь " + i + "." + j, "Описание", true, answerer, request));
+            }
+        }
+        itemRequestIndex.rebuild();
+    }
+
+    @Test
+    public void listingsQueryCountDoesNotDependOnPageSize() {
+        // warm up the user cache
+        service.getByUserId(requestor.getId(), null, null);
+        service.getAll(answerer.getId(), null, null);
+
+        long fewByUser = countQueries(() -> service.getByUserId(requestor.getId(), 0, 2));
+        long manyByUser = countQueries(() -> service.getByUserId(requestor.getId(), 0, 20));
+        long fewAll = countQueries(() -> service.getAll(answerer.getId(), 0, 2));
+        long manyAll = countQueries(() -> service.getAll(answerer.getId(), 0, 20));
+
+        assertEquals(fewByUser, manyByUser);
+        assertEquals(fewAll, manyAll);
+        // one select for the page of requests and one for all of their answers
+        assertEquals(2L, manyByUser);
+        assertEquals(2L, manyAll);
+    }
+
+    @Test
+    public void getByIdLoadsRequestAndAnswersOnly() {
+        service.getAll(answerer.getId(), 0, 1); // warm up the user cache
+        ItemRequest request = itemRequestRepository.findByRequestorId(requestor.getId(),
+                OffsetLimitPageable.create(2, 1, Sort.by(Sort.Direction.ASC, "id"))).get(0);
+
+        List<ItemRequestDto> found = new ArrayList<>();
+        assertEquals(2L, countQueries(() -> found.add(service.getById(request.getId(), answerer.getId()))));
+        assertEquals(2, found.get(0).getItems().size());
+    }
+
+    @Test
+    public void getByUserIdPagesInIdOrderWithAnswers() {
+        List<ItemRequestDto> page = service.getByUserId(requestor.getId(), 3, 4);
+
+        List<String> descriptions = page.stream().map(ItemRequestDto::getDescription).collect(Collectors.toList());
+        assertEquals(List.of("Нужна вещь 3", "Нужна вещь 4", "Нужна вещь 5", "Нужна вещь 6"), descriptions);
+        List<Integer> answers = page.stream().map(dto -> dto.getItems().size()).collect(Collectors.toList());
+        assertEquals(List.of(0, 1, 2, 0), answers);
+    }
+
+    @Test
+    public void addedItemIsSuggestedForMatchingRequest() {
+        ItemRequestDto request = service.addNew(
+                new ItemRequestDto(null, "Ищу дрель, чтобы повесить полку", null, null), requestor.getId());
+        ItemDto item = itemService.addNewItem(
+                new ItemDto(null, "Дрель", "Простая дрель", true, null, null, null, null), answerer.getId());
+        itemService.addNewItem(
+                new ItemDto(null, "Пила", "Простая пила", true, null, null, null, null), answerer.getId());
+
+        List<ItemDto> suggestions = service.getSuggestions(request.getId(), answerer.getId());
+
+        assertEquals(List.of(item.getId()), suggestions.stream().map(ItemDto::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void streamReceivesAnswersToOwnRequestsOnly() throws Exception {
+        ItemRequestDto request = service.addNew(
+                new ItemRequestDto(null, "Нужна стремянка", null, null), requestor.getId());
+        ItemRequestDto foreign = service.addNew(
+                new ItemRequestDto(null, "Нужен молоток", null, null), answerer.getId());
+        int subscribers = itemRequestSubscribers.size();
+        MvcResult stream = mvc.perform(get("/requests/stream").header("X-Sharer-User-Id", requestor.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertEquals(subscribers + 1, itemRequestSubscribers.size());
+
+        ItemDto answer = new ItemDto(null, "Стремянка", "Три ступеньки", true, null, null, null, request.getId());
+        ItemDto saved = itemService.addNewItem(answer, answerer.getId());
+        ItemDto other = new ItemDto(null, "Молоток", "Тяжелый", true, null, null, null, foreign.getId());
+        itemService.addNewItem(other, requestor.getId());
+
+        String events = awaitContent(stream, "data:");
+        assertThat(events, containsString("event:answer"));
+        assertThat(events, containsString("\"id\":" + saved.getId()));
+        assertThat(events, not(containsString("Молоток")));
+    }
+
+    private String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String content = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        }
+        return content;
+    }
+
+    private long countQueries(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -10,20 +10,26 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.TestUtil;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.paging.OffsetLimitPageable;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.search.ItemRequestIndex;
 import ru.practicum.shareit.requests.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.UserCache;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Matchers.eq;
@@ -40,9 +46,15 @@ public class ItemRequestServiceTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private UserCache userCache;
+    @Mock
     private ItemRequestRepository itemRequestRepository;
     @Mock
     private ItemRepository itemRepository;
+    @Mock
+    private ItemRequestIndex itemRequestIndex;
+    @Mock
+    private ItemRequestSubscribers itemRequestSubscribers;
 
     @Mock
     private ItemRequest request;
@@ -58,7 +70,8 @@ public class ItemRequestServiceTest {
     @BeforeEach
     public void before() {
         when(userRepository.findById(eq(userId))).thenReturn(Optional.of(user));
-        when(itemRepository.findByRequestId(Matchers.any())).thenReturn(new ArrayList<>());
+        when(userCache.findById(Matchers.any())).thenAnswer(input -> userRepository.findById((Long) input.getArguments()[0]));
+        when(itemRepository.findByRequestIdIn(Matchers.any())).thenReturn(new ArrayList<>());
         when(itemRequestRepository.save(Matchers.any())).thenAnswer(input -> input.getArguments()[0]);
 
         TestUtil.setupUserWithRepo(user, userId, "user", userRepository);
@@ -99,6 +112,56 @@ public class ItemRequestServiceTest {
         assertEquals("descriptions not match", "desc", captor.getValue().getDescription());
     }
 
+    @Test
+    public void indexed_when_add_new() {
+        ItemRequestDto itemRequestDto = new ItemRequestDto(null, "desc", null, null);
+        underTest.addNew(itemRequestDto, userId);
+
+        verify(itemRequestIndex).add(Matchers.any());
+    }
+
+    @Test
+    public void not_found_suggestions_for_absent_request() {
+        when(itemRequestRepository.existsById(eq(7L))).thenReturn(false);
+        assertThrows(
+                NotFoundException.class,
+                () -> underTest.getSuggestions(7L, userId)
+        );
+    }
+
+    @Test
+    public void suggestions_are_available_indexed_items() {
+        Item available = mock(Item.class);
+        when(available.getId()).thenReturn(1L);
+        when(available.getAvailable()).thenReturn(true);
+        Item unavailable = mock(Item.class);
+        when(unavailable.getId()).thenReturn(2L);
+        when(unavailable.getAvailable()).thenReturn(false);
+        when(itemRequestRepository.existsById(eq(7L))).thenReturn(true);
+        when(itemRequestIndex.suggestions(eq(7L))).thenReturn(List.of(1L, 2L));
+        when(itemRepository.findByIdInOrderById(eq(List.of(1L, 2L)))).thenReturn(List.of(available, unavailable));
+
+        List<ItemDto> result = underTest.getSuggestions(7L, userId);
+
+        assertEquals("wrong suggestions", 1, result.size());
+        assertEquals("wrong item", 1L, result.get(0).getId());
+    }
+
+    @Test
+    public void subscribes_existing_user() {
+        underTest.subscribe(userId);
+        verify(itemRequestSubscribers).subscribe(eq(userId));
+    }
+
+    @Test
+    public void not_found_when_subscribing_absent_user() {
+        assertThrows(
+                NotFoundException.class,
+                () -> underTest.subscribe(777L)
+        );
+        verify(itemRequestSubscribers, never()).subscribe(Matchers.any());
+    }
+
     @Test
     public void return_added_when_add_new() {
         ItemRequestDto itemRequestDto = new ItemRequestDto(null, "desc", null, null);
@@ -130,15 +193,15 @@ public class ItemRequestServiceTest {
                 NotFoundException.class,
                 () -> {
                     when(userRepository.findById(eq(userId))).thenReturn(Optional.empty());
-                    underTest.getByUserId(userId);
+                    underTest.getByUserId(userId, null, null);
                 }
         );
     }
 
     @Test
     public void got_empty_requests_when_get_by_user() {
-        when(itemRequestRepository.findByRequestor(user)).thenReturn(new ArrayList<>());
-        List<ItemRequestDto> result = underTest.getByUserId(userId);
+        when(itemRequestRepository.findByRequestorId(eq(userId), any())).thenReturn(new ArrayList<>());
+        List<ItemRequestDto> result = underTest.getByUserId(userId, null, null);
         assertTrue("Results not empty", result.isEmpty());
     }
 
@@ -148,11 +211,33 @@ public class ItemRequestServiceTest {
         requestsInDb.add(getMockItemRequest());
         requestsInDb.add(getMockItemRequest());
         requestsInDb.add(getMockItemRequest());
-        when(itemRequestRepository.findByRequestor(user)).thenReturn(requestsInDb);
-        List<ItemRequestDto> result = underTest.getByUserId(userId);
+        when(itemRequestRepository.findByRequestorId(eq(userId), any())).thenReturn(requestsInDb);
+        List<ItemRequestDto> result = underTest.getByUserId(userId, null, null);
         assertEquals("Wrong result size", 3, result.size());
     }
 
+    @Test
+    public void get_by_user_pages_in_repo_and_loads_answers_once() {
+        ItemRequest first = getMockItemRequest(1L);
+        ItemRequest second = getMockItemRequest(2L);
+        Item answer = mock(Item.class);
+        when(answer.getRequest()).thenReturn(second);
+        when(itemRequestRepository.findByRequestorId(eq(userId), any())).thenReturn(List.of(first, second));
+        when(itemRepository.findByRequestIdIn(Matchers.any())).thenReturn(List.of(answer));
+
+        List<ItemRequestDto> result = underTest.getByUserId(userId, 2, 5);
+
+        assertEquals("no answers expected", 0, result.get(0).getItems().size());
+        assertEquals("wrong answers", 1, result.get(1).getItems().size());
+        verify(itemRepository, times(1)).findByRequestIdIn(eq(Set.of(1L, 2L)));
+
+        ArgumentCaptor<OffsetLimitPageable> captor = ArgumentCaptor.forClass(OffsetLimitPageable.class);
+        verify(itemRequestRepository).findByRequestorId(eq(userId), captor.capture());
+        assertEquals("wrong offset", 2L, captor.getValue().getOffset());
+        assertEquals("wrong page size", 5, captor.getValue().getPageSize());
+        assertEquals("wrong sort", Sort.by(Sort.Direction.ASC, "id"), captor.getValue().getSort());
+    }
+
     @Test
     public void get_all_with_no_paging() {
         List<ItemRequest> requestsInDb = new ArrayList<>();
@@ -238,4 +323,10 @@ public class ItemRequestServiceTest {
         when(mock.getRequestor()).thenReturn(user);
         return mock;
     }
+
+    private ItemRequest getMockItemRequest(Long id) {
+        ItemRequest mock = getMockItemRequest();
+        when(mock.getId()).thenReturn(id);
+        return mock;
+    }
 }
@@ -0,0 +1,155 @@
+package ru.practicum.shareit.requests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.practicum.shareit.item.dto.ItemDto;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ItemRequestSubscribersTest {
+
+    private final ItemRequestSubscribers underTest = new ItemRequestSubscribers(
+            Duration.ofMinutes(1), Duration.ofHours(1), Duration.ofMillis(100), 2);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void after() {
+        release.countDown();
+        underTest.close();
+    }
+
+    @Test
+    public void stalled_stream_does_not_hold_up_others() throws Exception {
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        RecordingEmitter other = new RecordingEmitter(null);
+        underTest.subscribe(1L, stalled);
+        underTest.subscribe(2L, other);
+
+        underTest.publish(1L, item(10L));
+        underTest.publish(1L, item(11L));
+        underTest.publish(2L, item(12L));
+
+        String event = other.events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event, "event not sent");
+        assertTrue(event.contains("event:answer"), event);
+        assertTrue(event.contains("\"id\":12"), event);
+    }
+
+    @Test
+    public void failed_stream_is_dropped() throws Exception {
+        SseEmitter broken = new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        underTest.subscribe(1L, broken);
+
+        underTest.publish(1L, item(10L));
+
+        awaitSize(0);
+    }
+
+    @Test
+    public void heartbeat_is_a_comment_and_drops_stalled_streams() throws Exception {
+        RecordingEmitter idle = new RecordingEmitter(null);
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        underTest.subscribe(1L, idle);
+        underTest.subscribe(2L, stalled);
+        underTest.publish(2L, item(10L));
+
+        underTest.heartbeat();
+        String event = idle.events.poll(5, TimeUnit.SECONDS);
+        assertEquals(":" + ItemRequestSubscribers.HEARTBEAT + "\n\n", event);
+
+        Thread.sleep(200);
+        underTest.heartbeat();
+        awaitSize(1);
+    }
+
+    @Test
+    public void more_stalled_streams_than_senders_are_released_by_heartbeat() throws Exception {
+        RecordingEmitter other = new RecordingEmitter(null);
+        for (long userId = 1; userId <= 3; userId++) {
+            underTest.subscribe(userId, new RecordingEmitter(release));
+            underTest.publish(userId, item(userId));
+        }
+        underTest.subscribe(4L, other);
+        underTest.publish(4L, item(12L));
+
+        Thread.sleep(200);
+        underTest.heartbeat();
+
+        String event = other.events.poll(5, TimeUnit.SECONDS);
+        assertNotNull(event, "event not sent");
+        assertTrue(event.contains("\"id\":12"), event);
+    }
+
+    @Test
+    public void stream_falling_behind_is_dropped() {
+        underTest.subscribe(1L, new RecordingEmitter(release));
+
+        for (long id = 0; id <= ItemRequestSubscribers.MAX_PENDING + 1; id++) {
+            underTest.publish(1L, item(id));
+        }
+
+        assertEquals(0, underTest.size());
+    }
+
+    private void awaitSize(int size) throws InterruptedException {
+        for (int i = 0; i < 100 && underTest.size() != size; i++) {
+            Thread.sleep(50);
+        }
+        assertEquals(size, underTest.size());
+    }
+
+    private ItemDto item(Long id) {
+        return new ItemDto(id, "Дрель", "Простая дрель", true, null, null, null, null);
+    }
+
+    /**
+     * Keeps the text of every event sent, blocks in send until released when given a latch.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        private final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException(e);
+                }
+            }
+            StringBuilder text = new StringBuilder();
+            for (DataWithMediaType part : builder.build()) {
+                boolean plain = part.getMediaType() == null || part.getMediaType().isCompatibleWith(MediaType.TEXT_PLAIN);
+                text.append(plain ? part.getData() : json(part.getData()));
+            }
+            events.add(text.toString());
+        }
+
+        private static String json(Object data) throws IOException {
+            return new MappingJackson2HttpMessageConverter().getObjectMapper().writeValueAsString(data);
+        }
+    }
+}
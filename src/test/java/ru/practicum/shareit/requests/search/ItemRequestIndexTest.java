@@ -0,0 +1,129 @@
+package ru.practicum.shareit.requests.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.dto.ItemNameView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.storage.ItemRepository;
+import ru.practicum.shareit.requests.dto.ItemRequestIndexView;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.storage.ItemRequestRepository;
+import ru.practicum.shareit.user.UserDeletedEvent;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+
+public class ItemRequestIndexTest {
+
+    private static final User REQUESTOR = new User(1L, "requestor", "requestor@yandex.ru");
+    private static final User OWNER = new User(2L, "owner", "owner@yandex.ru");
+
+    private final ItemRequestRepository itemRequestRepository = mock(ItemRequestRepository.class);
+    private final ItemRepository itemRepository = mock(ItemRepository.class);
+    private final ItemRequestIndex underTest = new ItemRequestIndex(itemRequestRepository, itemRepository);
+
+    @BeforeEach
+    public void before() {
+        underTest.add(request(10L, "Нужна дрель с ударным режимом", REQUESTOR));
+        underTest.add(request(11L, "Ищу аккумуляторную отвертку", REQUESTOR));
+        underTest.add(request(12L, "Дрели не нужны, нужна пила", OWNER));
+    }
+
+    @Test
+    public void stems_fold_case_and_endings() {
+        assertEquals("wrong stems", Set.of("дрел", "ударн", "пил"), ItemRequestIndex.stems("Дрелью, ударная ПИЛА!"));
+        assertEquals("short words kept", Set.of(), ItemRequestIndex.stems("на и в"));
+    }
+
+    @Test
+    public void item_matches_requests_having_all_name_words() {
+        assertEquals("wrong match", List.of(10L), underTest.match(item(100L, "Дрель ударная")));
+        assertEquals("wrong match", List.of(11L), underTest.match(item(101L, "Отвертка аккумуляторная")));
+        assertEquals("matched partially", List.of(), underTest.match(item(102L, "Дрель угловая")));
+
+        assertEquals("wrong suggestions", List.of(100L), underTest.suggestions(10L));
+    }
+
+    @Test
+    public void own_requests_are_not_matched() {
+        assertEquals("own request matched", List.of(), underTest.match(item(100L, "Пила")));
+        assertEquals("own request matched", List.of(10L), underTest.match(item(101L, "Дрель")));
+    }
+
+    @Test
+    public void rename_replaces_links() {
+        Item item = item(100L, "Дрель");
+        underTest.match(item);
+        item.setName("Отвертка");
+        underTest.match(item);
+
+        assertEquals("old link kept", List.of(), underTest.suggestions(10L));
+        assertEquals("new link missed", List.of(100L), underTest.suggestions(11L));
+    }
+
+    @Test
+    public void item_made_for_a_request_is_not_suggested() {
+        Item item = item(100L, "Дрель");
+        underTest.match(item);
+        item.setRequest(request(10L, "Нужна дрель с ударным режимом", REQUESTOR));
+
+        assertEquals("matched", List.of(), underTest.match(item));
+        assertEquals("link kept", List.of(), underTest.suggestions(10L));
+    }
+
+    @Test
+    public void removed_requests_and_items_are_forgotten() {
+        underTest.match(item(100L, "Дрель"));
+        underTest.match(item(101L, "Отвертка"));
+
+        underTest.remove(List.of(new ItemRequestIndexView(10L, "Нужна дрель с ударным режимом", REQUESTOR.getId())),
+                List.of(101L));
+
+        assertEquals("removed request suggested", List.of(), underTest.suggestions(10L));
+        assertEquals("removed item suggested", List.of(), underTest.suggestions(11L));
+        assertEquals("removed request matched", List.of(), underTest.match(item(102L, "Дрель")));
+    }
+
+    @Test
+    public void requests_and_items_of_deleted_user_are_forgotten() {
+        underTest.match(item(100L, "Отвертка"));
+        underTest.match(item(101L, "Дрель"));
+
+        underTest.onUserDeleted(new UserDeletedEvent(REQUESTOR.getId(), Set.of(101L),
+                List.of(new ItemRequestIndexView(11L, "Ищу аккумуляторную отвертку", REQUESTOR.getId())),
+                Set.of(), Set.of()));
+
+        assertEquals("deleted request suggested", List.of(), underTest.suggestions(11L));
+        assertEquals("deleted item suggested", List.of(), underTest.suggestions(10L));
+        assertEquals("deleted request matched", List.of(), underTest.match(item(102L, "Отвертка")));
+        assertEquals("kept request lost", List.of(10L), underTest.match(item(103L, "Дрель")));
+    }
+
+    @Test
+    public void rebuild_matches_stored_items() {
+        when(itemRequestRepository.findAllForIndex()).thenReturn(List.of(
+                new ItemRequestIndexView(10L, "Нужна дрель", REQUESTOR.getId())));
+        when(itemRepository.findAllWithoutRequest()).thenReturn(List.of(
+                new ItemNameView(100L, "Дрель", OWNER.getId()),
+                new ItemNameView(101L, "Пила", OWNER.getId())));
+
+        underTest.rebuild();
+
+        assertEquals("wrong suggestions", List.of(100L), underTest.suggestions(10L));
+        assertEquals("stale request", List.of(), underTest.suggestions(11L));
+    }
+
+    private ItemRequest request(Long id, String description, User requestor) {
+        return new ItemRequest(id, description, requestor, ZonedDateTime.now());
+    }
+
+    private Item item(Long id, String name) {
+        return new Item(id, name, "описание", true, OWNER, null);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.context.request.ServletWebRequest;
+import ru.practicum.shareit.exception.BadRequestException;
+import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertFalse;
+import static org.springframework.test.util.AssertionErrors.assertTrue;
+
+public class SharerUserArgumentResolverTest {
+
+    private final UserCache userCache = mock(UserCache.class);
+    private final SharerUserArgumentResolver underTest = new SharerUserArgumentResolver(userCache);
+
+    @Test
+    public void supports_only_annotated_user_parameters() throws NoSuchMethodException {
+        assertTrue("annotated user", underTest.supportsParameter(parameter(0)));
+        assertFalse("plain user", underTest.supportsParameter(parameter(1)));
+        assertFalse("annotated id", underTest.supportsParameter(parameter(2)));
+    }
+
+    @Test
+    public void resolves_user_from_header() throws Exception {
+        User user = new User(7L, "user", "user@yandex.ru");
+        when(userCache.findById(7L)).thenReturn(Optional.of(user));
+
+        assertEquals("wrong user", user, underTest.resolveArgument(parameter(0), null, request("7"), null));
+    }
+
+    @Test
+    public void missing_header_is_reported_like_request_header() {
+        assertThrows(
+                MissingRequestHeaderException.class,
+                () -> underTest.resolveArgument(parameter(0), null, request(null), null)
+        );
+    }
+
+    @Test
+    public void bad_request_for_malformed_header() {
+        assertThrows(
+                BadRequestException.class,
+                () -> underTest.resolveArgument(parameter(0), null, request("seven"), null)
+        );
+    }
+
+    @Test
+    public void not_found_for_unknown_user() {
+        when(userCache.findById(8L)).thenReturn(Optional.empty());
+        assertThrows(
+                NotFoundException.class,
+                () -> underTest.resolveArgument(parameter(0), null, request("8"), null)
+        );
+    }
+
+    private ServletWebRequest request(String userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (userId != null) request.addHeader(SharerUserArgumentResolver.HEADER, userId);
+        return new ServletWebRequest(request);
+    }
+
+    private MethodParameter parameter(int index) throws NoSuchMethodException {
+        return new MethodParameter(
+                Handler.class.getDeclaredMethod("handle", User.class, User.class, Long.class), index);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Handler {
+        void handle(@SharerUser User user, User other, @SharerUser Long userId) {
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ru.practicum.shareit.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.AssertionErrors.assertEquals;
+import static org.springframework.test.util.AssertionErrors.assertFalse;
+
+public class UserCacheTest {
+
+    private static final long USER_ID = 1L;
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UserCache underTest = new UserCache(userRepository, meterRegistry, 100, Duration.ofMinutes(10));
+    private final User user = new User(USER_ID, "user", "user@yandex.ru");
+
+    @BeforeEach
+    public void before() {
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+    }
+
+    @AfterEach
+    public void after() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void user_is_loaded_once_until_evicted() {
+        assertEquals("wrong user", Optional.of(user), underTest.findById(USER_ID));
+        underTest.findById(USER_ID);
+        verify(userRepository, times(1)).findById(USER_ID);
+        assertEquals("wrong hits", 1.0, meterRegistry.get("cache.gets")
+                .tag("cache", UserCache.NAME).tag("result", "hit").functionCounter().count());
+
+        underTest.evict(USER_ID);
+        underTest.findById(USER_ID);
+        verify(userRepository, times(2)).findById(USER_ID);
+    }
+
+    @Test
+    public void deleted_user_is_evicted() {
+        underTest.findById(USER_ID);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
+
+        underTest.onUserDeleted(new UserDeletedEvent(USER_ID, Set.of(), List.of(), Set.of(), Set.of()));
+
+        assertFalse("deleted user found", underTest.findById(USER_ID).isPresent());
+    }
+
+    @Test
+    public void absent_user_is_not_cached() {
+        assertFalse("found absent", underTest.findById(2L).isPresent());
+        when(userRepository.findById(2L)).thenReturn(Optional.of(new User(2L, "late", "late@yandex.ru")));
+
+        assertEquals("absent cached", "late", underTest.findById(2L).map(User::getName).orElse(null));
+    }
+
+    @Test
+    public void request_keeps_its_user_without_asking_the_shared_cache() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        underTest.findById(USER_ID);
+        underTest.invalidateAll();
+
+        underTest.findById(USER_ID);
+        verify(userRepository, times(1)).findById(USER_ID);
+
+        underTest.evict(USER_ID);
+        underTest.findById(USER_ID);
+        verify(userRepository, times(2)).findById(USER_ID);
+    }
+}
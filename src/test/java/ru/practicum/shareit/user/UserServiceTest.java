@@ -10,21 +10,33 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.item.ItemInfoCache;
+import ru.practicum.shareit.item.comment.CommentRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.storage.ItemRepository;
 import ru.practicum.shareit.exception.BadRequestException;
 import ru.practicum.shareit.exception.ConflictException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.requests.dto.ItemRequestIndexView;
+import ru.practicum.shareit.requests.storage.ItemRequestRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.hamcrest.CoreMatchers.hasItems;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.util.AssertionErrors.assertEquals;
@@ -39,6 +51,30 @@ public class UserServiceTest {
     @Mock
     UserRepository userRepository;
 
+    @Mock
+    ItemSearchCache itemSearchCache;
+
+    @Mock
+    ItemInfoCache itemInfoCache;
+
+    @Mock
+    UserCache userCache;
+
+    @Mock
+    ItemRepository itemRepository;
+
+    @Mock
+    ItemRequestRepository itemRequestRepository;
+
+    @Mock
+    BookingRepository bookingRepository;
+
+    @Mock
+    CommentRepository commentRepository;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
     @BeforeEach
     public void before() {
         when(userRepository.save(Matchers.any())).thenAnswer(input -> input.getArguments()[0]);
@@ -137,6 +173,27 @@ public class UserServiceTest {
         assertEquals("names not match", "user_new", capturedUser.getName());
         assertEquals("mails not match", "user_new@yandex.ru", capturedUser.getEmail());
         assertEquals("ids not match", (Long) 123L, capturedUser.getId());
+        verify(userCache).evict(123L);
+    }
+
+    @Test
+    public void items_commented_by_renamed_user_are_evicted() {
+        when(userRepository.findById(eq(123L))).thenReturn(Optional.of(new User(123L, "old", "user@yandex.ru")));
+        when(commentRepository.findItemIdsByAuthorId(eq(123L))).thenReturn(List.of(40L));
+
+        underTest.updateUser(new UserDto(null, "new", null), 123L);
+
+        verify(itemInfoCache).evictInfo(40L);
+        verify(itemSearchCache).itemTouched(40L);
+    }
+
+    @Test
+    public void items_are_kept_when_name_is_the_same() {
+        when(userRepository.findById(eq(123L))).thenReturn(Optional.of(new User(123L, "old", "user@yandex.ru")));
+
+        underTest.updateUser(new UserDto(null, "old", "new@yandex.ru"), 123L);
+
+        verify(commentRepository, never()).findItemIdsByAuthorId(any());
     }
 
     @Test
@@ -194,7 +251,23 @@ public class UserServiceTest {
 
     @Test
     public void delete_userById_deletes() {
+        ItemRequestIndexView request = new ItemRequestIndexView(5L, "need a drill", 123L);
+        when(itemRepository.findIdsByOwnerId(eq(123L))).thenReturn(List.of(10L));
+        when(itemRepository.findIdsByRequestorId(eq(123L))).thenReturn(List.of(20L));
+        when(itemRequestRepository.findForIndexByRequestorId(eq(123L))).thenReturn(List.of(request));
+        when(bookingRepository.findItemIdsByBookerId(eq(123L))).thenReturn(List.of(30L));
+        when(commentRepository.findItemIdsByAuthorId(eq(123L))).thenReturn(List.of(40L));
+
         underTest.deleteUserById(123L);
+
         verify(userRepository).deleteById(123L);
+        ArgumentCaptor<UserDeletedEvent> captor = ArgumentCaptor.forClass(UserDeletedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        UserDeletedEvent event = captor.getValue();
+        assertEquals("user not match", (Long) 123L, event.getUserId());
+        assertEquals("deleted items not match", Set.of(10L, 20L), event.getDeletedItemIds());
+        assertEquals("deleted requests not match", List.of(request), event.getDeletedRequests());
+        assertEquals("booked items not match", Set.of(30L), event.getBookedItemIds());
+        assertEquals("commented items not match", Set.of(40L), event.getCommentedItemIds());
     }
 }